@@ -0,0 +1,132 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.os.Debug;
+import android.os.SystemClock;
+import android.test.ActivityInstrumentationTestCase2;
+import android.view.MotionEvent;
+
+/**
+ * Checks that a drag through the whole touch path doesn't allocate, and that hit testing from the
+ * cached card bounds keeps up with the card as it moves.
+ */
+public class BouncyScrollViewTest extends ActivityInstrumentationTestCase2<MainActivity> {
+
+    private static final int WIDTH = LayoutHarness.WIDTH;
+    private static final int HEIGHT = LayoutHarness.HEIGHT;
+    private static final int CARD_WIDTH = TestCards.WIDTH;
+    private static final int CARD_HEIGHT = TestCards.HEIGHT;
+
+    private BouncyScrollView bouncyScrollView;
+
+    public BouncyScrollViewTest() {
+        super(MainActivity.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        bouncyScrollView = LayoutHarness.create(this);
+    }
+
+    @SuppressWarnings("deprecation")
+    public void testDragDoesNotAllocate() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                int start = (int) bouncyScrollView.getAbsoluteStartingPosition();
+                int cardCenter = HEIGHT - start + CARD_HEIGHT / 2;
+                MotionEvent[] gesture = obtainDrag(cardCenter, cardCenter - 200, 40);
+                // Warm up so the VelocityTracker, lazy class init and pooled frame callbacks
+                // don't show up in the count.
+                bouncyScrollView.setCardPosition(start);
+                dispatch(gesture);
+                assertTrue(bouncyScrollView.getCardPosition() > start);
+
+                bouncyScrollView.setCardPosition(start);
+                Debug.resetThreadAllocCount();
+                Debug.startAllocCounting();
+                dispatch(gesture);
+                Debug.stopAllocCounting();
+
+                assertEquals(0, Debug.getThreadAllocCount());
+                for (MotionEvent event : gesture)
+                    event.recycle();
+            }
+        });
+    }
+
+    /**
+     * DOWN at fromY, moves every 8ms, then UP at toY.
+     */
+    private static MotionEvent[] obtainDrag(int fromY, int toY, int moves) {
+        MotionEvent[] events = new MotionEvent[moves + 2];
+        long downTime = SystemClock.uptimeMillis();
+        events[0] = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, WIDTH / 2, fromY, 0);
+        for (int i = 1; i <= moves; i++) {
+            float y = fromY + (toY - fromY) * i / (float) moves;
+            events[i] = MotionEvent.obtain(downTime, downTime + i * 8, MotionEvent.ACTION_MOVE, WIDTH / 2, y, 0);
+        }
+        events[moves + 1] = MotionEvent.obtain(downTime, downTime + (moves + 1) * 8, MotionEvent.ACTION_UP, WIDTH / 2, toY, 0);
+        return events;
+    }
+
+    private void dispatch(MotionEvent[] gesture) {
+        for (MotionEvent event : gesture)
+            bouncyScrollView.dispatchTouchEvent(event);
+    }
+
+    public void testScrollModeHitTestFollowsCard() {
+        checkHitTestFollowsCard();
+    }
+
+    public void testTranslationModeHitTestFollowsCard() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                bouncyScrollView.setRenderMode(BouncyScrollView.RENDER_MODE_TRANSLATION);
+                LayoutHarness.layout(bouncyScrollView, HEIGHT);
+            }
+        });
+        checkHitTestFollowsCard();
+    }
+
+    /**
+     * Moves the card without another layout pass and checks points just inside and just outside
+     * where it is on screen now.
+     */
+    private void checkHitTestFollowsCard() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                int start = (int) bouncyScrollView.getAbsoluteStartingPosition();
+                int[] positions = {start, start + 150, start - 150, start};
+                for (int position : positions) {
+                    bouncyScrollView.setCardPosition(position);
+                    assertEquals(position, bouncyScrollView.getCardPosition());
+
+                    // The card's top is position px up from our bottom.
+                    int top = HEIGHT - position;
+                    int left = (WIDTH - CARD_WIDTH) / 2;
+                    String at = " with the card at " + position;
+                    assertTrue("center" + at, isTouching(WIDTH / 2, top + CARD_HEIGHT / 2));
+                    assertTrue("inside top" + at, isTouching(WIDTH / 2, top + 5));
+                    assertTrue("inside bottom" + at, isTouching(WIDTH / 2, top + CARD_HEIGHT - 5));
+                    assertFalse("above" + at, isTouching(WIDTH / 2, top - 5));
+                    assertFalse("below" + at, isTouching(WIDTH / 2, top + CARD_HEIGHT + 5));
+                    assertFalse("left" + at, isTouching(left - 5, top + CARD_HEIGHT / 2));
+                    assertFalse("right" + at, isTouching(left + CARD_WIDTH + 5, top + CARD_HEIGHT / 2));
+                }
+            }
+        });
+    }
+
+    private boolean isTouching(float x, float y) {
+        long now = SystemClock.uptimeMillis();
+        MotionEvent event = MotionEvent.obtain(now, now, MotionEvent.ACTION_DOWN, x, y, 0);
+        try {
+            return bouncyScrollView.isTouchingView(event);
+        } finally {
+            event.recycle();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.test.ActivityInstrumentationTestCase2;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Dismisses cards with items queued up. A card prefetched while the main thread was idle should
+ * be shown as is, one we didn't get to in time is bound on the spot, and a listener that shows
+ * a card itself from onViewHitTop() should leave the queue alone.
+ */
+public class CardDeckTest extends ActivityInstrumentationTestCase2<MainActivity> {
+
+    private BouncyScrollView bouncyScrollView;
+    private ViewGroup cardFrame;
+    private final TestCards.CountingAdapter adapter = new TestCards.CountingAdapter();
+
+    public CardDeckTest() {
+        super(MainActivity.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                bouncyScrollView = new BouncyScrollView(getActivity());
+                bouncyScrollView.setCardAdapter(adapter);
+                bouncyScrollView.setItem(0);
+                ViewGroup content = (ViewGroup) getActivity().findViewById(android.R.id.content);
+                content.addView(bouncyScrollView);
+                cardFrame = (ViewGroup) bouncyScrollView.findViewById(R.id.view_container);
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+    }
+
+    public void testPrefetchedCardIsShown() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                bouncyScrollView.enqueueItem(1);
+            }
+        });
+        // The idle handler binds item 1's card.
+        getInstrumentation().waitForIdleSync();
+        assertEquals(2, adapter.getViewsCreated());
+
+        dismiss();
+        assertEquals(1, bouncyScrollView.getPrefetchHits());
+        assertEquals(0, bouncyScrollView.getPrefetchMisses());
+        assertShowing(1);
+        assertEquals(2, adapter.getViewsCreated());
+    }
+
+    public void testCardNotPrefetchedInTimeIsBound() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                // Dismissed before the main thread ever goes idle.
+                bouncyScrollView.enqueueItem(1);
+                TestCards.dismissOffTop(bouncyScrollView);
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+
+        assertEquals(0, bouncyScrollView.getPrefetchHits());
+        assertEquals(1, bouncyScrollView.getPrefetchMisses());
+        assertShowing(1);
+    }
+
+    public void testListenerShowingCardOwnsTheHit() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                bouncyScrollView.enqueueItem(1);
+                bouncyScrollView.addEventListener(new BouncyScrollView.EventListener() {
+                    @Override
+                    public void onViewHitBottom(View view) {
+                    }
+
+                    @Override
+                    public void onViewHitTop(View view) {
+                        bouncyScrollView.setItem(99);
+                    }
+
+                    @Override
+                    public void onScrollChanged(BouncyScrollView scrollView, int l, int t, int oldl, int oldt) {
+                    }
+                });
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+
+        dismiss();
+        assertShowing(99);
+        assertEquals(1, bouncyScrollView.getQueuedItemCount());
+        assertEquals(0, bouncyScrollView.getPrefetchHits() + bouncyScrollView.getPrefetchMisses());
+        assertEquals(2, adapter.getViewsCreated());
+    }
+
+    private void dismiss() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                TestCards.dismissOffTop(bouncyScrollView);
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+    }
+
+    private void assertShowing(final int item) {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(1, cardFrame.getChildCount());
+                assertEquals(item, cardFrame.getChildAt(0).getTag());
+            }
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.test.AndroidTestCase;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ScrollView;
+
+import java.util.Arrays;
+
+/**
+ * Compares building BouncyScrollView's hierarchy in code against inflating the old
+ * view_bouncy_scrollview layout, up to and including the first layout pass. Both go into the
+ * same kind of outer ScrollView, so the only difference is how the inside gets built. Building
+ * it in code shouldn't be any slower.
+ */
+public class ConstructionBenchmark extends AndroidTestCase {
+
+    private static final String TAG = "ConstructionBenchmark";
+
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 200;
+    private static final int WIDTH = 480;
+    private static final int HEIGHT = 800;
+
+    public void testProgrammaticIsNotSlowerThanInflated() {
+        for (int i = 0; i < WARMUP; i++) {
+            buildProgrammatic();
+            buildInflated();
+        }
+
+        long[] programmatic = new long[ITERATIONS];
+        long[] inflated = new long[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++) {
+            programmatic[i] = buildProgrammatic();
+            inflated[i] = buildInflated();
+        }
+
+        // Medians so the odd GC pause doesn't decide it.
+        long programmaticMedian = median(programmatic);
+        long inflatedMedian = median(inflated);
+        Log.i(TAG, "programmatic: " + programmaticMedian + "ns/view, "
+                + "inflated: " + inflatedMedian + "ns/view");
+        assertTrue("programmatic " + programmaticMedian + "ns vs inflated " + inflatedMedian + "ns",
+                programmaticMedian <= inflatedMedian);
+    }
+
+    private long buildProgrammatic() {
+        long start = System.nanoTime();
+        ScrollView view = newScrollView();
+        view.addView(BouncyScrollView.buildContainer(getContext()), new ViewGroup.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        findViews(view);
+        layout(view);
+        return System.nanoTime() - start;
+    }
+
+    private long buildInflated() {
+        long start = System.nanoTime();
+        ScrollView view = newScrollView();
+        View.inflate(getContext(), R.layout.view_bouncy_scrollview, view);
+        findViews(view);
+        layout(view);
+        return System.nanoTime() - start;
+    }
+
+    private ScrollView newScrollView() {
+        ScrollView view = new ScrollView(getContext());
+        view.setFillViewport(true);
+        view.setVerticalScrollBarEnabled(false);
+        return view;
+    }
+
+    private void findViews(View view) {
+        assertNotNull(view.findViewById(R.id.view_container));
+        assertNotNull(view.findViewById(R.id.top_spacer));
+        assertNotNull(view.findViewById(R.id.bottom_spacer));
+    }
+
+    private void layout(View view) {
+        view.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private static long median(long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
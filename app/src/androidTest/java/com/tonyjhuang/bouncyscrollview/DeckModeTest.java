@@ -0,0 +1,70 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.test.ActivityInstrumentationTestCase2;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Dismisses every card in a long deck with a few cards peeking. Only the peeking cards should
+ * ever be attached, the adapter should only create a handful of views, and promoting the next
+ * card shouldn't ask for a layout pass.
+ */
+public class DeckModeTest extends ActivityInstrumentationTestCase2<MainActivity> {
+
+    private static final int ITEMS = 300;
+    private static final int STACK_SIZE = 3;
+
+    private BouncyScrollView bouncyScrollView;
+    private ViewGroup cardFrame;
+    private final TestCards.CountingAdapter adapter = new TestCards.CountingAdapter();
+
+    public DeckModeTest() {
+        super(MainActivity.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                bouncyScrollView = new BouncyScrollView(getActivity());
+                bouncyScrollView.setStackSize(STACK_SIZE);
+                bouncyScrollView.setCardAdapter(adapter);
+                bouncyScrollView.setItem(0);
+                for (int i = 1; i < ITEMS; i++)
+                    bouncyScrollView.enqueueItem(i);
+                ViewGroup content = (ViewGroup) getActivity().findViewById(android.R.id.content);
+                content.addView(bouncyScrollView);
+                cardFrame = (ViewGroup) bouncyScrollView.findViewById(R.id.view_container);
+            }
+        });
+        // Lay out and let the peeking cards get bound.
+        getInstrumentation().waitForIdleSync();
+    }
+
+    public void testDismissingPromotesFromStack() {
+        for (int i = 1; i < ITEMS; i++) {
+            final int item = i;
+            getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    assertEquals(Math.min(STACK_SIZE, ITEMS - item + 1), cardFrame.getChildCount());
+                    TestCards.dismissOffTop(bouncyScrollView);
+
+                    View card = cardFrame.getChildAt(cardFrame.getChildCount() - 1);
+                    assertEquals(item, card.getTag());
+                    assertEquals((int) bouncyScrollView.getAbsoluteStartingPosition(),
+                            bouncyScrollView.getCardPosition());
+                    assertFalse(bouncyScrollView.isParked());
+                    assertFalse(bouncyScrollView.isLayoutRequested());
+                }
+            });
+            getInstrumentation().waitForIdleSync();
+        }
+
+        assertEquals(0, bouncyScrollView.getQueuedItemCount());
+        assertEquals(1, cardFrame.getChildCount());
+        assertTrue("created " + adapter.getViewsCreated() + " views", adapter.getViewsCreated() <= STACK_SIZE + 1);
+    }
+}
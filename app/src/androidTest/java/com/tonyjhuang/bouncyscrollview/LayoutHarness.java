@@ -0,0 +1,74 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.test.ActivityInstrumentationTestCase2;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Builds a BouncyScrollView with a TestCards card and hands it over detached, so the test drives
+ * every measure and layout pass itself. A card only gets attached once the view has been in a
+ * window, so it goes through the activity's content view first.
+ */
+final class LayoutHarness {
+
+    static final int WIDTH = 480;
+    static final int HEIGHT = 800;
+
+    /**
+     * Give up on layoutUntilStable() after this many passes.
+     */
+    private static final int MAX_PASSES = 10;
+
+    private LayoutHarness() {
+    }
+
+    /**
+     * Call from the test thread. The view comes back laid out at WIDTH x HEIGHT.
+     */
+    static BouncyScrollView create(final ActivityInstrumentationTestCase2<MainActivity> test) {
+        final BouncyScrollView[] scrollView = new BouncyScrollView[1];
+        test.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                scrollView[0] = new BouncyScrollView(test.getActivity());
+                scrollView[0].setCustomView(TestCards.newCard(test.getActivity()));
+                ViewGroup content = (ViewGroup) test.getActivity().findViewById(android.R.id.content);
+                content.addView(scrollView[0]);
+            }
+        });
+        test.getInstrumentation().waitForIdleSync();
+        test.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                ((ViewGroup) scrollView[0].getParent()).removeView(scrollView[0]);
+                layout(scrollView[0], HEIGHT);
+            }
+        });
+        return scrollView[0];
+    }
+
+    /**
+     * One measure and layout pass at WIDTH x height.
+     */
+    static void layout(View view, int height) {
+        view.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, WIDTH, height);
+    }
+
+    /**
+     * Lay out at height until nothing asks for another pass, like ViewRootImpl would over
+     * consecutive frames.
+     *
+     * @return how many passes that took.
+     */
+    static int layoutUntilStable(View view, int height) {
+        int passes = 0;
+        do {
+            layout(view, height);
+            passes++;
+        } while (view.isLayoutRequested() && passes < MAX_PASSES);
+        return passes;
+    }
+}
@@ -0,0 +1,175 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.content.Context;
+import android.test.ActivityInstrumentationTestCase2;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+/**
+ * Attaches and detaches BouncyScrollViews mid card swap, mid animation and mid async inflation,
+ * then checks that nothing queued along the way keeps the detached views alive.
+ */
+public class LifecycleTest extends ActivityInstrumentationTestCase2<MainActivity> {
+
+    private static final int CYCLES = 1000;
+    private static final int INFLATION_CYCLES = 200;
+    private static final int SAMPLE_EVERY = 50;
+
+    private ViewGroup content;
+
+    public LifecycleTest() {
+        super(MainActivity.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        content = (ViewGroup) getActivity().findViewById(android.R.id.content);
+    }
+
+    public void testDetachedMidSwapIsNotRetained() throws InterruptedException {
+        final ArrayList<WeakReference<View>> samples = new ArrayList<WeakReference<View>>();
+        final BouncyScrollView[] current = new BouncyScrollView[1];
+
+        for (int i = 0; i < CYCLES; i++) {
+            final boolean sample = i % SAMPLE_EVERY == 0;
+            getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    BouncyScrollView scrollView = new BouncyScrollView(getActivity());
+                    content.addView(scrollView);
+                    View card = new View(getActivity());
+                    scrollView.setCustomView(card);
+                    if (sample) {
+                        samples.add(new WeakReference<View>(scrollView));
+                        samples.add(new WeakReference<View>(card));
+                    }
+                    current[0] = scrollView;
+                }
+            });
+            // Let the posted card swap run and the entry animation get going.
+            getInstrumentation().waitForIdleSync();
+            getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    // Animating the old card out, the new one waits in pendingCustomView.
+                    View card = new View(getActivity());
+                    current[0].setCustomView(card, true);
+                    if (sample)
+                        samples.add(new WeakReference<View>(card));
+                    content.removeView(current[0]);
+                    current[0] = null;
+                }
+            });
+        }
+
+        assertNoneRetained(samples);
+    }
+
+    public void testDetachedMidInflationIsNotRetained() throws InterruptedException {
+        final ArrayList<WeakReference<View>> samples = new ArrayList<WeakReference<View>>();
+        final ArrayList<WeakReference<View>> inflated = new ArrayList<WeakReference<View>>();
+        final BouncyScrollView.CardFactory factory = new BouncyScrollView.CardFactory() {
+            @Override
+            public View createView(Context context, ViewGroup parent) {
+                try {
+                    // Long enough that we're detached before it's done.
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                View card = new View(context);
+                synchronized (inflated) {
+                    inflated.add(new WeakReference<View>(card));
+                }
+                return card;
+            }
+        };
+
+        for (int i = 0; i < INFLATION_CYCLES; i++) {
+            final boolean sample = i % SAMPLE_EVERY == 0;
+            getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    BouncyScrollView scrollView = new BouncyScrollView(getActivity());
+                    content.addView(scrollView);
+                    scrollView.setCustomView(factory, false);
+                    if (sample)
+                        samples.add(new WeakReference<View>(scrollView));
+                    content.removeView(scrollView);
+                }
+            });
+        }
+
+        // Let the executor finish whatever it had started.
+        Thread.sleep(INFLATION_CYCLES * 10);
+        synchronized (inflated) {
+            samples.addAll(inflated);
+        }
+        assertNoneRetained(samples);
+    }
+
+    public void testCardSetWhileDetachedBeatsInterruptedInflation() throws InterruptedException {
+        final BouncyScrollView.CardFactory factory = new BouncyScrollView.CardFactory() {
+            @Override
+            public View createView(Context context, ViewGroup parent) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new View(context);
+            }
+        };
+        final BouncyScrollView[] scrollView = new BouncyScrollView[1];
+        final View[] card = new View[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                scrollView[0] = new BouncyScrollView(getActivity());
+                content.addView(scrollView[0]);
+                scrollView[0].setCustomView(factory, false);
+                // Detached and rebound, the way RecyclerView does it.
+                content.removeView(scrollView[0]);
+                card[0] = new View(getActivity());
+                scrollView[0].setCustomView(card[0]);
+                content.addView(scrollView[0]);
+            }
+        });
+
+        // Long enough for the old factory to have finished if it was started again.
+        Thread.sleep(500);
+        getInstrumentation().waitForIdleSync();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertSame(card[0], scrollView[0].getCustomView());
+                ViewGroup cardFrame = (ViewGroup) scrollView[0].findViewById(R.id.view_container);
+                assertSame(card[0], cardFrame.getChildAt(cardFrame.getChildCount() - 1));
+                content.removeView(scrollView[0]);
+            }
+        });
+    }
+
+    private void assertNoneRetained(ArrayList<WeakReference<View>> samples) throws InterruptedException {
+        getInstrumentation().waitForIdleSync();
+        for (int i = 0; i < 10 && countRetained(samples) > 0; i++) {
+            Runtime.getRuntime().gc();
+            Runtime.getRuntime().runFinalization();
+            Thread.sleep(50);
+        }
+        assertEquals(0, countRetained(samples));
+    }
+
+    private static int countRetained(ArrayList<WeakReference<View>> samples) {
+        int retained = 0;
+        for (WeakReference<View> sample : samples) {
+            if (sample.get() != null)
+                retained++;
+        }
+        return retained;
+    }
+}
@@ -0,0 +1,104 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.os.Build;
+import android.test.AndroidTestCase;
+import android.view.View;
+
+/**
+ * Plays the part of a nested scrolling child inside the card. The child scrolls first, leftovers
+ * move the card, and moving back towards the starting position comes out of the card before the
+ * child sees any of it.
+ */
+public class NestedScrollTest extends AndroidTestCase {
+
+    private static final int WIDTH = 480;
+    private static final int HEIGHT = 800;
+
+    private BouncyScrollView bouncyScrollView;
+    private View card;
+    private int start;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        bouncyScrollView = new BouncyScrollView(getContext());
+        card = new View(getContext());
+        bouncyScrollView.setCustomView(card);
+        bouncyScrollView.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        bouncyScrollView.layout(0, 0, WIDTH, HEIGHT);
+        start = (int) bouncyScrollView.getAbsoluteStartingPosition();
+        bouncyScrollView.setCardPosition(start);
+    }
+
+    public void testLeftoverScrollMovesCard() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) return;
+
+        startNestedScroll();
+        bouncyScrollView.onNestedScroll(card, 0, 30, 0, 0);
+        assertEquals(start, bouncyScrollView.getCardPosition());
+
+        bouncyScrollView.onNestedScroll(card, 0, 0, 0, -50);
+        assertEquals(start - 50, bouncyScrollView.getCardPosition());
+    }
+
+    public void testPreScrollReturnsCardBeforeChildScrolls() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) return;
+
+        startNestedScroll();
+        bouncyScrollView.onNestedScroll(card, 0, 0, 0, -50);
+
+        int[] consumed = new int[2];
+        bouncyScrollView.onNestedPreScroll(card, 0, 80, consumed);
+        assertEquals(50, consumed[1]);
+        assertEquals(start, bouncyScrollView.getCardPosition());
+
+        consumed[1] = 0;
+        bouncyScrollView.onNestedPreScroll(card, 0, 20, consumed);
+        assertEquals(0, consumed[1]);
+        assertEquals(start, bouncyScrollView.getCardPosition());
+    }
+
+    public void testFlingGoesToChildOnlyWithCardAtStart() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) return;
+
+        startNestedScroll();
+        assertFalse(bouncyScrollView.onNestedPreFling(card, 0, 2000));
+
+        bouncyScrollView.onNestedScroll(card, 0, 0, 0, -50);
+        assertTrue(bouncyScrollView.onNestedPreFling(card, 0, 2000));
+        bouncyScrollView.onStopNestedScroll(card);
+    }
+
+    public void testFlingOffEndOfChildGoesToCard() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) return;
+
+        startNestedScroll();
+        bouncyScrollView.onNestedScroll(card, 0, 0, 0, -50);
+        // Children report the fling consumed even with nothing left to scroll.
+        assertTrue(bouncyScrollView.onNestedFling(card, 0, -2000, true));
+        bouncyScrollView.onStopNestedScroll(card);
+    }
+
+    public void testFlingStaysWithChildThatCanScroll() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) return;
+
+        View scrollingChild = new View(getContext()) {
+            @Override
+            public boolean canScrollVertically(int direction) {
+                return true;
+            }
+        };
+        startNestedScroll();
+        assertFalse(bouncyScrollView.onNestedFling(scrollingChild, 0, -2000, true));
+        assertEquals(start, bouncyScrollView.getCardPosition());
+    }
+
+    private void startNestedScroll() {
+        assertTrue(bouncyScrollView.onStartNestedScroll(bouncyScrollView.getChildAt(0), card,
+                View.SCROLL_AXIS_VERTICAL));
+        bouncyScrollView.onNestedScrollAccepted(bouncyScrollView.getChildAt(0), card,
+                View.SCROLL_AXIS_VERTICAL);
+    }
+}
@@ -0,0 +1,100 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.test.ActivityInstrumentationTestCase2;
+import android.view.View;
+
+/**
+ * Resizes a BouncyScrollView the way an IME or inset animation does and counts the layout passes
+ * each new height costs. Every resize should settle in a single pass with the card kept at the
+ * same place relative to its starting position, and a card parked off the top should stay there
+ * without listeners hearing about it again.
+ */
+public class ResizeLayoutTest extends ActivityInstrumentationTestCase2<MainActivity> {
+
+    private static final int[] HEIGHTS = {700, 600, 500, 450, 500, 650, 800};
+
+    private BouncyScrollView bouncyScrollView;
+    private int hits = 0;
+
+    public ResizeLayoutTest() {
+        super(MainActivity.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        bouncyScrollView = LayoutHarness.create(this);
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                bouncyScrollView.addEventListener(new BouncyScrollView.EventListener() {
+                    @Override
+                    public void onViewHitBottom(View view) {
+                        hits++;
+                    }
+
+                    @Override
+                    public void onViewHitTop(View view) {
+                        hits++;
+                    }
+
+                    @Override
+                    public void onScrollChanged(BouncyScrollView scrollView, int l, int t, int oldl, int oldt) {
+                    }
+                });
+            }
+        });
+    }
+
+    public void testScrollModeResizeTakesOnePass() {
+        resizeAndCheck();
+    }
+
+    public void testTranslationModeResizeTakesOnePass() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                bouncyScrollView.setRenderMode(BouncyScrollView.RENDER_MODE_TRANSLATION);
+            }
+        });
+        resizeAndCheck();
+    }
+
+    public void testParkedCardStaysParkedWithoutHit() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                LayoutHarness.layoutUntilStable(bouncyScrollView, LayoutHarness.HEIGHT);
+                TestCards.dismissOffTop(bouncyScrollView);
+                assertTrue(bouncyScrollView.isParked());
+                assertEquals(1, hits);
+
+                for (int height : HEIGHTS) {
+                    LayoutHarness.layoutUntilStable(bouncyScrollView, height);
+                    assertEquals("hits for height " + height, 1, hits);
+                    assertTrue("parked for height " + height, bouncyScrollView.isParked());
+                    assertEquals("card position for height " + height,
+                            bouncyScrollView.getHeight() + TestCards.HEIGHT, bouncyScrollView.getCardPosition());
+                }
+            }
+        });
+    }
+
+    private void resizeAndCheck() {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                LayoutHarness.layoutUntilStable(bouncyScrollView, LayoutHarness.HEIGHT);
+                bouncyScrollView.setCardPosition((int) bouncyScrollView.getAbsoluteStartingPosition());
+                assertEquals((int) bouncyScrollView.getAbsoluteStartingPosition(), bouncyScrollView.getCardPosition());
+
+                for (int height : HEIGHTS) {
+                    assertEquals("passes for height " + height, 1,
+                            LayoutHarness.layoutUntilStable(bouncyScrollView, height));
+                    assertEquals("card position for height " + height,
+                            (int) bouncyScrollView.getAbsoluteStartingPosition(), bouncyScrollView.getCardPosition());
+                }
+            }
+        });
+    }
+}
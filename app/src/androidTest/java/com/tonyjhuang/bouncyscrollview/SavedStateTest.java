@@ -0,0 +1,97 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.os.Parcelable;
+import android.os.SystemClock;
+import android.test.ActivityInstrumentationTestCase2;
+import android.view.ViewGroup;
+
+/**
+ * Saves a BouncyScrollView's state and restores it into a new one whose card is set in the same
+ * frame, the way an activity does it in onCreate(). The card should come back where it was.
+ */
+public class SavedStateTest extends ActivityInstrumentationTestCase2<MainActivity> {
+
+    private ViewGroup content;
+
+    public SavedStateTest() {
+        super(MainActivity.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        content = (ViewGroup) getActivity().findViewById(android.R.id.content);
+    }
+
+    public void testCardOffTopIsRestoredOffTop() {
+        final BouncyScrollView restored = saveAndRestore(Integer.MAX_VALUE);
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(restored.getHeight() + TestCards.HEIGHT, restored.getCardPosition());
+                assertTrue(restored.isParked());
+            }
+        });
+    }
+
+    public void testFreeCardIsRestoredInPlace() {
+        final int[] position = new int[1];
+        final BouncyScrollView restored = saveAndRestore(-100, position);
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(position[0], restored.getCardPosition());
+                assertFalse(restored.isParked());
+            }
+        });
+    }
+
+    private BouncyScrollView saveAndRestore(int position) {
+        return saveAndRestore(position, new int[1]);
+    }
+
+    /**
+     * @param position where to leave the card, relative to its starting position, or
+     *                 Integer.MAX_VALUE for off the top.
+     * @param saved    gets the position the card was actually saved at.
+     */
+    private BouncyScrollView saveAndRestore(final int position, final int[] saved) {
+        final BouncyScrollView[] original = new BouncyScrollView[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                original[0] = addScrollView();
+            }
+        });
+        // Save once the entry animation is over, or the state is just "at start".
+        SystemClock.sleep(original[0].getViewAnimationDuration() + 200);
+        getInstrumentation().waitForIdleSync();
+
+        final BouncyScrollView[] restored = new BouncyScrollView[1];
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                original[0].setCardPosition(position == Integer.MAX_VALUE ? position
+                        : (int) original[0].getAbsoluteStartingPosition() + position);
+                saved[0] = original[0].getCardPosition();
+                Parcelable state = original[0].onSaveInstanceState();
+                content.removeView(original[0]);
+
+                restored[0] = addScrollView();
+                restored[0].onRestoreInstanceState(state);
+            }
+        });
+        getInstrumentation().waitForIdleSync();
+        return restored[0];
+    }
+
+    /**
+     * Main thread only.
+     */
+    private BouncyScrollView addScrollView() {
+        BouncyScrollView scrollView = new BouncyScrollView(getActivity());
+        scrollView.setCustomView(TestCards.newCard(getActivity()));
+        content.addView(scrollView);
+        return scrollView;
+    }
+}
@@ -0,0 +1,41 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.test.AndroidTestCase;
+import android.view.animation.LinearInterpolator;
+
+/**
+ * setViewAnimationDuration() rebuilds the physics we made ourselves and leaves alone anything
+ * handed to setScrollPhysics().
+ */
+public class ScrollPhysicsTest extends AndroidTestCase {
+
+    private BouncyScrollView bouncyScrollView;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        bouncyScrollView = new BouncyScrollView(getContext());
+    }
+
+    public void testDefaultSpringFollowsDuration() {
+        bouncyScrollView.setViewAnimationDuration(300);
+        SpringScrollPhysics physics = (SpringScrollPhysics) bouncyScrollView.getScrollPhysics();
+        assertEquals(300, physics.getDuration());
+    }
+
+    public void testInterpolatorFollowsDuration() {
+        bouncyScrollView.setInterpolator(new LinearInterpolator());
+        bouncyScrollView.setViewAnimationDuration(300);
+        InterpolatorScrollPhysics physics = (InterpolatorScrollPhysics) bouncyScrollView.getScrollPhysics();
+        assertEquals(300, physics.getDuration());
+        assertTrue(physics.getInterpolator() instanceof LinearInterpolator);
+    }
+
+    public void testCustomPhysicsIsKept() {
+        SpringScrollPhysics custom = new SpringScrollPhysics(400f, 0.3f);
+        bouncyScrollView.setScrollPhysics(custom);
+        bouncyScrollView.setViewAnimationDuration(300);
+        assertSame(custom, bouncyScrollView.getScrollPhysics());
+        assertEquals(300, bouncyScrollView.getViewAnimationDuration());
+    }
+}
@@ -0,0 +1,55 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+/**
+ * Plain fixed size cards for the instrumentation tests.
+ */
+final class TestCards {
+
+    static final int WIDTH = 200;
+    static final int HEIGHT = 300;
+
+    private TestCards() {
+    }
+
+    static View newCard(Context context) {
+        View card = new View(context);
+        card.setLayoutParams(new FrameLayout.LayoutParams(WIDTH, HEIGHT));
+        return card;
+    }
+
+    /**
+     * setCardPosition() clamps, so this puts the card just off the top, as if it had been
+     * dismissed.
+     */
+    static void dismissOffTop(BouncyScrollView scrollView) {
+        scrollView.setCardPosition(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Makes newCard()s, tagged with the item they're bound to, and counts how many it made.
+     */
+    static class CountingAdapter extends BouncyScrollView.CardAdapter<Integer> {
+
+        private int viewsCreated = 0;
+
+        @Override
+        public View createView(ViewGroup parent, int viewType) {
+            viewsCreated++;
+            return newCard(parent.getContext());
+        }
+
+        @Override
+        public void bind(View view, Integer item) {
+            view.setTag(item);
+        }
+
+        int getViewsCreated() {
+            return viewsCreated;
+        }
+    }
+}
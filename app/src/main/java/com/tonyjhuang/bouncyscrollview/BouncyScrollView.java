@@ -1,49 +1,233 @@
 package com.tonyjhuang.bouncyscrollview;
 
-import android.animation.Animator;
-import android.animation.ObjectAnimator;
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Rect;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.Process;
 import android.support.annotation.NonNull;
 import android.util.AttributeSet;
-import android.util.Log;
+import android.view.Gravity;
+import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.VelocityTracker;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.view.WindowManager;
 import android.view.animation.AccelerateInterpolator;
 import android.view.animation.Interpolator;
 import android.view.animation.OvershootInterpolator;
-import android.widget.FrameLayout;
 import android.widget.LinearLayout;
+import android.widget.ProgressBar;
 import android.widget.ScrollView;
 import android.widget.Space;
 
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
 /**
  * Created by tony on 12/28/14.
  */
 public class BouncyScrollView extends ScrollView {
 
-    private final String TAG = getClass().getSimpleName();
+    /**
+     * How many animations' frame stats we keep around for dumpFrameStats().
+     */
+    public static final int FRAME_STATS_HISTORY = 64;
+
+    /**
+     * Move the card by scrolling past the full height spacers above and below it. The default.
+     */
+    public static final int RENDER_MODE_SCROLL = 0;
+
+    /**
+     * Move the card by setting its translationY. The spacers are dropped, so there's no extra
+     * layout pass when our size changes and moving the card only touches its display list
+     * properties instead of invalidating the whole scroller.
+     */
+    public static final int RENDER_MODE_TRANSLATION = 1;
+
+    /**
+     * Work we've posted to ourselves. Posted runnables are dropped when we're detached and the
+     * ones that matter are posted again when we're reattached.
+     */
+    private static final int TASK_RESET_POSITION = 1;
+    private static final int TASK_ANIMATE_TO_START = 1 << 1;
+    private static final int TASK_ATTACH_CARD = 1 << 2;
+    private static final int TASK_SCROLL_TO_CARD = 1 << 3;
 
-    private FrameLayout viewContainer;
+    private CardFrame viewContainer;
     private Space topSpacer;
     private Space bottomSpacer;
     private View customView;
+    private final Rect cardBounds = new Rect();
+
+    /**
+     * Set if our cards come from a CardAdapter. Cards made by the adapter are tagged with their
+     * view type under R.id.card_view_type.
+     */
+    private CardAdapter<Object> cardAdapter;
+    private final CardViewPool cardViewPool = new CardViewPool();
+
+    /**
+     * Items queued up with enqueueItem(). Once the current card is dismissed we show the next one.
+     */
+    private final CardDeck cardDeck = new CardDeck(this);
+
+    /**
+     * Deck mode. With a stackSize above 1 the next stackSize - 1 queued items peek out from under
+     * the card, each stackOffset px lower and stackScale smaller than the one in front of it. When
+     * the card is dismissed the next one is promoted in place instead of entering again.
+     */
+    private int stackSize;
+    private int stackOffset;
+    private float stackScale;
+
+    /**
+     * The card we'll swap in once an animated setCustomView has moved the old one off screen.
+     */
+    private View pendingCustomView;
 
-    private ObjectAnimator viewAnimator;
+    /**
+     * Shown while a card from setCustomView(CardFactory) is being inflated in the background.
+     */
+    private View placeholderView;
+    private CardInflation pendingInflation;
+    private CardFactory interruptedInflation;
+    private static Executor inflationExecutor;
+
+    /**
+     * Inflated cards come back through here rather than post(). Posting from the executor while
+     * we're detached would park the runnable in that thread's own run queue before API 24, which
+     * is never drained and would keep the card, us and our Activity around for good.
+     */
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * How the card moves into its starting position. Defaults to a spring that looks like the
+     * original overshoot; setting an interpolator swaps in an InterpolatorScrollPhysics instead.
+     * Either is rebuilt when the duration changes, unless customScrollPhysics says it came from
+     * setScrollPhysics().
+     */
+    private ScrollPhysics scrollPhysics;
+    private boolean customScrollPhysics = false;
     private Interpolator viewAnimationInterpolator = new OvershootInterpolator();
     private int viewAnimationDuration;
 
     private float relativeStartingPosition;
     private int absoluteStartingPosition;
 
-    protected boolean draggingOutside = false;
-    protected boolean draggingInside = false;
+    private final TouchState touchState = new TouchState();
 
     private boolean scrollable;
 
+    private int renderMode = RENDER_MODE_SCROLL;
+
+    /**
+     * Where the card is in RENDER_MODE_TRANSLATION. Same units as scrollY in RENDER_MODE_SCROLL:
+     * 0 is just below the bottom edge and getMaxScrollHeight() is just above the top edge.
+     */
+    private int cardPosition = 0;
+
+    /**
+     * We drag the card ourselves in both render modes. cardDrag resamples every touch sample,
+     * historical ones included, to the frame time and moves the card once per frame. lastMotionY
+     * is where the gesture went down, for the touch slop.
+     */
+    private final int touchSlop;
+    private float lastMotionY;
+    private final CardDragController cardDrag;
+
+    /**
+     * A scrolling child inside the card is driving the gesture through nested scrolling (API 21+).
+     * It scrolls first and hands us whatever it couldn't use, we don't intercept in the meantime.
+     */
+    private boolean nestedScrolling = false;
+    private boolean nestedFlung = false;
+
+    /**
+     * eventListener is the one from setEventListener(), it's also in eventListeners.
+     */
     private EventListener eventListener;
+    private final ListenerList<EventListener> eventListeners = new ListenerList<EventListener>();
+
+    /**
+     * Progress is only worked out if someone's listening, and only dispatched once it's moved by
+     * progressStep and progressInterval has passed (both 0 by default, so every change).
+     */
+    private final ListenerList<ProgressListener> progressListeners = new ListenerList<ProgressListener>();
+    private float progressStep = 0f;
+    private int progressInterval = 0;
+    private float lastProgress = Float.NaN;
+    private long lastProgressTime;
+    private int lastAssistDirection = ScrollMath.ASSIST_NONE;
+    private boolean atStartingPosition = false;
+
+    /**
+     * Run in order every time the card moves.
+     */
+    private final ArrayList<ScrollEffect> scrollEffects = new ArrayList<ScrollEffect>();
+
+    private final Stats stats = new Stats();
+
+    /**
+     * Frame timing collection. Everything here stays null/unused until someone sets a
+     * PerformanceListener.
+     */
+    private PerformanceListener performanceListener;
+    private FrameStatsRing frameStatsHistory;
+    private long frameIntervalNanos;
+    private long lastTouchUpNanos;
     private OnScrollStopListener onScrollStopListener = new OnScrollStopListener();
 
+    /**
+     * Set while the card is all the way off screen. A parked card isn't drawn, hit tested, faded
+     * or watched for scroll stops, so idle BouncyScrollViews cost next to nothing per frame.
+     */
+    private boolean parked = false;
+
+    private int pendingTasks = 0;
+    private int pendingScrollPosition;
+
+    /**
+     * Set if detaching cut a drag, a scroll assist or a wait for the scroll to stop short, so the
+     * card may have been left part way off screen. Only then is there anything to pick up again
+     * on attach.
+     */
+    private boolean settleInterrupted = false;
+
+    /**
+     * Set if the entry animation was asked for before we had a size. It runs at the end of our
+     * first layout instead.
+     */
+    private boolean entryWaitingForLayout = false;
+
+    /**
+     * State from onRestoreInstanceState(), applied on our first layout. While it's being applied
+     * restoringState is set so listeners don't hear about the card hitting an edge all over
+     * again.
+     */
+    private SavedState pendingRestore;
+    private boolean restoringState = false;
+
+    /**
+     * Where the card was, as ScrollMath progress, before our height changed. Until it's been put
+     * back, ScrollView clamping its scroll to the new size can land a parked card on an edge, so
+     * like restoringState this keeps listeners from hearing about it.
+     */
+    private boolean resizeAnchorPending = false;
+    private float resizeAnchorProgress;
+    private float resizeAnchorTargetProgress;
+
     /**
      * Once a certain percentage of the view is off the screen, should we automatically scroll it
      * entirely off? The threshold is the percentage of the view you want scrolled off before we
@@ -53,10 +237,40 @@ public class BouncyScrollView extends ScrollView {
      * Setting it to 0f is effectively turning off scrollAssist whereas setting it to 1f will scroll
      * the view as long as it touches the edge of the screen. Finally, 0.5f will scroll the view if
      * at least half of it is scrolled offscreen.
+     * <p/>
+     * When the user lets go of the card we make that call right away based on where their fling
+     * would have left it. If it wouldn't end up past either threshold it springs back to the
+     * starting position.
      */
     private boolean scrollAssist;
     private int scrollAssistDuration;
     private float scrollAssistThreshold;
+    private ScrollPhysics scrollAssistPhysics;
+
+    /**
+     * The one and only thing allowed to animate our card.
+     */
+    private final ScrollAnimationController scrollAnimator;
+
+    /**
+     * Used by setCustomView(view, true, duration). Only rebuilt if the duration changes.
+     */
+    private InterpolatorScrollPhysics swapPhysics;
+
+    /**
+     * The coast after a drag without scroll assist.
+     */
+    private final FlingScrollPhysics flingPhysics = new FlingScrollPhysics();
+
+    /**
+     * Scroll assist decides where the card ends up as soon as the finger lifts, based on how fast
+     * it was moving. One tracker is reused for every gesture.
+     */
+    private VelocityTracker velocityTracker;
+    private final int minimumFlingVelocity;
+    private final int maximumFlingVelocity;
+    private final float flingFriction;
+    private final float physicalCoeff;
 
     public BouncyScrollView(Context context) {
         this(context, null);
@@ -69,12 +283,13 @@ public class BouncyScrollView extends ScrollView {
     public BouncyScrollView(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
 
-        inflate(context, R.layout.view_bouncy_scrollview, this);
-        setOverScrollMode(OVER_SCROLL_NEVER);
+        ScrollAnimatorHooks scrollAnimatorHooks = new ScrollAnimatorHooks();
+        scrollAnimator = new ScrollAnimationController(FrameTicker.getInstance(), scrollAnimatorHooks);
+        scrollAnimator.setListener(scrollAnimatorHooks);
+        cardDrag = new CardDragController(FrameTicker.getInstance(), scrollAnimatorHooks);
 
-        viewContainer = (FrameLayout) findViewById(R.id.view_container);
-        topSpacer = (Space) findViewById(R.id.top_spacer);
-        bottomSpacer = (Space) findViewById(R.id.bottom_spacer);
+        buildHierarchy(context);
+        setOverScrollMode(OVER_SCROLL_NEVER);
 
         // load the styled attributes and set their properties
         TypedArray attributes = context.obtainStyledAttributes(attrs, R.styleable.BouncyScrollView, defStyleAttr, 0);
@@ -84,46 +299,283 @@ public class BouncyScrollView extends ScrollView {
         scrollAssistDuration = attributes.getInteger(R.styleable.BouncyScrollView_scroll_assist_anim_duration, 200);
         scrollAssistThreshold = attributes.getFloat(R.styleable.BouncyScrollView_scroll_assist_threshold, 0.5f);
         scrollable = attributes.getBoolean(R.styleable.BouncyScrollView_scrollable, true);
+        int renderMode = attributes.getInt(R.styleable.BouncyScrollView_render_mode, RENDER_MODE_SCROLL);
+        int stackSize = attributes.getInt(R.styleable.BouncyScrollView_stack_size, 1);
+        stackOffset = attributes.getDimensionPixelSize(R.styleable.BouncyScrollView_stack_offset,
+                Math.round(8 * context.getResources().getDisplayMetrics().density));
+        stackScale = attributes.getFloat(R.styleable.BouncyScrollView_stack_scale, 0.05f);
+
+        scrollPhysics = SpringScrollPhysics.overshoot(viewAnimationDuration);
+        scrollAssistPhysics = attributes.hasValue(R.styleable.BouncyScrollView_scroll_assist_anim_duration)
+                ? new InterpolatorScrollPhysics(new AccelerateInterpolator(), scrollAssistDuration)
+                : SpringScrollPhysics.assist();
         attributes.recycle();
+
+        ViewConfiguration viewConfiguration = ViewConfiguration.get(context);
+        touchSlop = viewConfiguration.getScaledTouchSlop();
+        minimumFlingVelocity = viewConfiguration.getScaledMinimumFlingVelocity();
+        maximumFlingVelocity = viewConfiguration.getScaledMaximumFlingVelocity();
+        flingFriction = ViewConfiguration.getScrollFriction();
+        physicalCoeff = ScrollMath.getPhysicalCoeff(context.getResources().getDisplayMetrics().density);
+        setRenderMode(renderMode);
+        viewContainer.setStackStyle(stackOffset, stackScale);
+        setStackSize(stackSize);
     }
 
     /* Blood & Guts */
 
+    /**
+     * Build our children by hand instead of inflating them, we're already a ScrollView so all we
+     * need is the column of top spacer, card container and bottom spacer. Saves parsing XML for
+     * every instance and a whole nested ScrollView worth of measure/layout.
+     */
+    private void buildHierarchy(Context context) {
+        LinearLayout container = buildContainer(context);
+        topSpacer = (Space) container.getChildAt(0);
+        viewContainer = (CardFrame) container.getChildAt(1);
+        bottomSpacer = (Space) container.getChildAt(2);
+
+        setFillViewport(true);
+        setVerticalScrollBarEnabled(false);
+        addView(container, new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
+    }
+
+    /**
+     * The spacer, card, spacer column we scroll. Same ids and params as view_bouncy_scrollview
+     * so ConstructionBenchmark can time one against the other.
+     */
+    static LinearLayout buildContainer(Context context) {
+        LinearLayout container = new LinearLayout(context);
+        container.setId(R.id.container);
+        container.setOrientation(LinearLayout.VERTICAL);
+        container.setClipToPadding(false);
+
+        Space topSpacer = new Space(context);
+        topSpacer.setId(R.id.top_spacer);
+        container.addView(topSpacer, new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT));
+
+        CardFrame viewContainer = new CardFrame(context);
+        viewContainer.setId(R.id.view_container);
+        LinearLayout.LayoutParams viewContainerLayoutParams = new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.WRAP_CONTENT, LinearLayout.LayoutParams.WRAP_CONTENT);
+        viewContainerLayoutParams.gravity = Gravity.CENTER_HORIZONTAL;
+        container.addView(viewContainer, viewContainerLayoutParams);
+
+        Space bottomSpacer = new Space(context);
+        bottomSpacer.setId(R.id.bottom_spacer);
+        container.addView(bottomSpacer, new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT));
+        return container;
+    }
+
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         super.onSizeChanged(w, h, oldw, oldh);
+        int oldStartingPosition = absoluteStartingPosition;
         setAbsoluteStartingPosition(relativeStartingPosition, h);
-        initViewAnimator();
+        if (oldh > 0 && h != oldh && pendingRestore == null) {
+            // Remember where the card (and wherever it's animating to) is relative to the old
+            // size; onLayout puts it back in the same place relative to the new one.
+            int oldMax = oldh + getCardHeight();
+            resizeAnchorPending = true;
+            resizeAnchorProgress = ScrollMath.getProgress(getCardPosition(), oldStartingPosition, oldMax);
+            if (scrollAnimator.isRunning()) {
+                resizeAnchorTargetProgress = ScrollMath.getProgress(
+                        scrollAnimator.getTarget(), oldStartingPosition, oldMax);
+            }
+        }
+        if (renderMode == RENDER_MODE_TRANSLATION)
+            viewContainer.setTranslationY(h - cardPosition);
+    }
+
+    /**
+     * Size the spacers to our height as part of this measure pass. Setting new LayoutParams
+     * after layout would request a whole second pass every time our height changes, which
+     * during an IME or inset animation is every frame.
+     */
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (renderMode == RENDER_MODE_SCROLL) {
+            // An UNSPECIFIED spec has no size to go on, keep whatever height we have.
+            int height = MeasureSpec.getMode(heightMeasureSpec) == MeasureSpec.UNSPECIFIED
+                    ? getHeight() : MeasureSpec.getSize(heightMeasureSpec);
+            if (height > 0 && topSpacer.getLayoutParams().height != height) {
+                topSpacer.getLayoutParams().height = height;
+                bottomSpacer.getLayoutParams().height = height;
+                // Only invalidates the cached measurements below us, nothing above us re-lays out.
+                topSpacer.forceLayout();
+                bottomSpacer.forceLayout();
+                getChildAt(0).forceLayout();
+            }
+        }
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
     }
 
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
         super.onLayout(changed, l, t, r, b);
-        if (changed) {
-            /**
-             * Set the height of the top and bottom spacers to the same size as this container so
-             * the card has space to scroll out of screen.
-             */
-            LinearLayout.LayoutParams topSpacerLayoutParams = (LinearLayout.LayoutParams) topSpacer.getLayoutParams();
-            topSpacerLayoutParams.height = getHeight();
-            topSpacer.setLayoutParams(topSpacerLayoutParams);
-
-            LinearLayout.LayoutParams bottomSpacerLayoutParams = (LinearLayout.LayoutParams) bottomSpacer.getLayoutParams();
-            bottomSpacerLayoutParams.height = getHeight();
-            bottomSpacer.setLayoutParams(bottomSpacerLayoutParams);
-        }
-    }
-
-    private void initViewAnimator() {
-        viewAnimator = ObjectAnimator.ofInt(this, "scrollY", 1, absoluteStartingPosition);
-        viewAnimator.setInterpolator(viewAnimationInterpolator);
-        viewAnimator.setDuration(viewAnimationDuration);
-        viewAnimator.addListener(new SimpleAnimationListener() {
+        updateCardBounds();
+        // Peeks pivot around their size, which they may only just have.
+        positionStack(getCardPosition());
+
+        // Can't scroll to the card until the spacers have been laid out at their new height.
+        if (renderMode == RENDER_MODE_SCROLL && topSpacer.getHeight() != getHeight())
+            return;
+        if (resizeAnchorPending)
+            anchorCardAfterResize();
+        if (pendingRestore != null) {
+            // A card set in the same frame isn't in yet. Wait for the layout its attach asks
+            // for, otherwise we'd restore against a card with no height.
+            if ((pendingTasks & TASK_ATTACH_CARD) == 0)
+                applyRestoredState();
+        } else if (entryWaitingForLayout) {
+            entryWaitingForLayout = false;
+            animateToStartingPositionRunnable.run();
+        }
+    }
+
+    private void anchorCardAfterResize() {
+        int max = getMaxScrollHeight();
+        int position = ScrollMath.getPosition(resizeAnchorProgress, absoluteStartingPosition, max);
+        if (scrollAnimator.isRunning()) {
+            int target = ScrollMath.getPosition(resizeAnchorTargetProgress, absoluteStartingPosition, max);
+            scrollAnimator.retarget(position, target);
+        }
+        setCardPosition(position);
+        resizeAnchorPending = false;
+    }
+
+    /* Saved State */
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        SavedState savedState = new SavedState(super.onSaveInstanceState());
+        int max = getMaxScrollHeight();
+        if (pendingRestore != null) {
+            // Never laid out since the last restore, hand the same state on.
+            savedState.cardState = pendingRestore.cardState;
+            savedState.progress = pendingRestore.progress;
+        } else if (pendingCustomView != null || entryWaitingForLayout
+                || (pendingTasks & TASK_ANIMATE_TO_START) != 0) {
+            // A new card is on its way in.
+            savedState.cardState = SavedState.CARD_AT_START;
+        } else {
+            // An animation is as good as finished: save where it's going, not where it is.
+            int position = scrollAnimator.isRunning() ? scrollAnimator.getTarget() : getCardPosition();
+            if (position == absoluteStartingPosition) {
+                savedState.cardState = SavedState.CARD_AT_START;
+            } else if (position >= max) {
+                savedState.cardState = SavedState.CARD_OFF_TOP;
+            } else if (position <= 0) {
+                savedState.cardState = SavedState.CARD_OFF_BOTTOM;
+            } else {
+                savedState.cardState = SavedState.CARD_FREE;
+                savedState.progress = ScrollMath.getProgress(position, absoluteStartingPosition, max);
+            }
+        }
+        return savedState;
+    }
+
+    /**
+     * Anything that would replay the entry bounce (a setCustomView() made before the state came
+     * back, say in onCreate()) is cancelled, and the card is put straight where it was on our
+     * first layout.
+     */
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+
+        pendingRestore = savedState;
+        pendingTasks &= ~(TASK_RESET_POSITION | TASK_ANIMATE_TO_START);
+        removeCallbacks(resetPositionRunnable);
+        removeCallbacks(animateToStartingPositionRunnable);
+        entryWaitingForLayout = false;
+        onScrollStopListener.setPause(false);
+        if (getHeight() > 0)
+            requestLayout();
+    }
+
+    private void applyRestoredState() {
+        SavedState savedState = pendingRestore;
+        pendingRestore = null;
+        int max = getMaxScrollHeight();
+        int position;
+        switch (savedState.cardState) {
+            case SavedState.CARD_OFF_TOP:
+                position = max;
+                break;
+            case SavedState.CARD_OFF_BOTTOM:
+                position = 0;
+                break;
+            case SavedState.CARD_FREE:
+                position = ScrollMath.getPosition(savedState.progress, absoluteStartingPosition, max);
+                break;
+            default:
+                position = absoluteStartingPosition;
+        }
+        scrollAnimator.stop();
+        restoringState = true;
+        try {
+            setParked(false);
+            setCardPosition(position);
+            // ScrollView may have restored its own scrollY already, in which case nothing moved
+            // and nothing was dispatched.
+            setParked(position == 0 || position == max);
+            if (!parked) applyScrollEffects(position);
+        } finally {
+            restoringState = false;
+        }
+    }
+
+    static class SavedState extends BaseSavedState {
+
+        static final int CARD_AT_START = 0;
+        static final int CARD_OFF_TOP = 1;
+        static final int CARD_OFF_BOTTOM = 2;
+        static final int CARD_FREE = 3;
+
+        int cardState;
+
+        /**
+         * Only used for CARD_FREE. Relative to the starting position (see ScrollMath.getProgress())
+         * so the card ends up somewhere sensible if our height changed.
+         */
+        float progress;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            cardState = in.readInt();
+            progress = in.readFloat();
+        }
+
+        @Override
+        public void writeToParcel(@NonNull Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(cardState);
+            out.writeFloat(progress);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
             @Override
-            public void onAnimationEnd(Animator animation) {
-                onScrollStopListener.setPause(false);
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
             }
-        });
+        };
     }
 
     /**
@@ -138,28 +590,11 @@ public class BouncyScrollView extends ScrollView {
         if (!scrollable) return false;
 
         onScrollStopListener.onInterceptTouchEvent(ev);
-        if (!isTouchingView(ev)) {
-            switch (ev.getAction()) {
-                case MotionEvent.ACTION_DOWN:
-                    draggingOutside = true;
-                    break;
-                case MotionEvent.ACTION_CANCEL:
-                case MotionEvent.ACTION_UP:
-                    draggingOutside = false;
-                    break;
-            }
-        } else {
-            switch (ev.getAction()) {
-                case MotionEvent.ACTION_DOWN:
-                    draggingInside = true;
-                    break;
-                case MotionEvent.ACTION_CANCEL:
-                case MotionEvent.ACTION_UP:
-                    draggingInside = false;
-                    break;
-            }
-        }
-        return super.onInterceptTouchEvent(ev);
+        touchState.onInterceptTouchEvent(ev.getAction(), isTouchingView(ev));
+        trackVelocity(ev);
+        if (ev.getAction() == MotionEvent.ACTION_DOWN && touchState.isDraggingInside())
+            grabCard();
+        return onInterceptCardDrag(ev);
     }
 
     @Override
@@ -169,241 +604,1067 @@ public class BouncyScrollView extends ScrollView {
         /**
          * Only consume the drag/scroll event if the MotionEvent is within the bounds of our view.
          */
-        int action = ev.getAction();
-        if (draggingInside || (isTouchingView(ev) && !draggingOutside)) {
-            if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL)
-                draggingInside = false;
-            return super.onTouchEvent(ev);
-        } else {
-            switch (action) {
-                case MotionEvent.ACTION_UP:
-                case MotionEvent.ACTION_CANCEL:
-                    draggingInside = false;
-                    draggingOutside = false;
+        if (touchState.onTouchEvent(ev.getAction(), isTouchingView(ev))) {
+            trackVelocity(ev);
+            boolean dragged = cardDrag.isDragging();
+            onCardDrag(ev);
+            if (ev.getAction() == MotionEvent.ACTION_UP) {
+                velocityTracker.computeCurrentVelocity(1000, maximumFlingVelocity);
+                // Finger moving up (negative y velocity) moves the card up, which is a larger position.
+                float velocity = -velocityTracker.getYVelocity();
+                if (!flingWithScrollAssist(velocity) && dragged)
+                    flingCard(velocity);
             }
-            return false;
+            return true;
         }
+        return false;
     }
 
-    /**
-     * Does this MotionEvent land on our CardView?
-     */
-    protected boolean isTouchingView(MotionEvent ev) {
-        if (customView == null)
-            return false;
-
-        int[] location = {0, 0};
-        customView.getLocationOnScreen(location);
-        int left = location[0];
-        int top = location[1];
-        int right = left + viewContainer.getWidth();
-        int bottom = top + viewContainer.getHeight();
-
-        float x = ev.getRawX();
-        float y = ev.getRawY();
-        return (x > left)
-                && (x < right)
-                && (y > top)
-                && (y < bottom);
+    private void trackVelocity(MotionEvent ev) {
+        if (velocityTracker == null)
+            velocityTracker = VelocityTracker.obtain();
+        if (ev.getAction() == MotionEvent.ACTION_DOWN)
+            velocityTracker.clear();
+        velocityTracker.addMovement(ev);
     }
 
-    private int lastT, lastOldT;
-
-    @Override
-    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
-        super.onScrollChanged(l, t, oldl, oldt);
-        Log.d(TAG, "t: " + t + ", oldt: " + oldt);
-        if (t == lastT && oldt == lastOldT)
+    /**
+     * The user put their finger on the card, stop whatever we were doing with it.
+     */
+    private void grabCard() {
+        if (!scrollAnimator.isRunning())
             return;
-        lastT = t;
-        lastOldT = oldt;
+        scrollAnimator.stop();
+        onScrollStopListener.setPause(false);
+    }
 
-        if (eventListener != null) eventListener.onScrollChanged(this, l, t, oldl, oldt);
+    /**
+     * Predict where the card would coast to from the release velocity and send it straight to
+     * wherever scroll assist would have sent it from there: off the top, off the bottom or back
+     * to its starting position. The card keeps its release velocity going into the motion.
+     *
+     * @param velocity in px/s, positive moves the card up.
+     * @return true if scroll assist took over.
+     */
+    private boolean flingWithScrollAssist(float velocity) {
+        if (!scrollAssist || customView == null)
+            return false;
 
-        if (t == 0) {
-            if (eventListener != null) eventListener.onViewHitBottom(customView);
-        } else if (t == getMaxScrollHeight()) {
-            if (eventListener != null) eventListener.onViewHitTop(customView);
-        } else {
-            onScrollStopListener.onScrollChanged(l, t, oldl, oldt);
+        if (BouncyTrace.ENABLED) BouncyTrace.beginSection(BouncyTrace.FLING_ASSIST);
+        try {
+            int predicted = ScrollMath.getFlingEndPosition(getCardPosition(), velocity, minimumFlingVelocity,
+                    flingFriction, physicalCoeff, getMaxScrollHeight());
+            int target = ScrollMath.getScrollAssistTarget(predicted, getHeight(), getCardHeight(),
+                    absoluteStartingPosition, getMaxScrollHeight(), scrollAssistThreshold);
+            if (BouncyTrace.ENABLED && target != absoluteStartingPosition) stats.assistsTriggered++;
+            scrollAnimator.animateTo(AnimationFrameStats.TYPE_SCROLL_ASSIST, target, velocity, scrollAssistPhysics, null);
+            return true;
+        } finally {
+            if (BouncyTrace.ENABLED) BouncyTrace.endSection();
         }
     }
 
-    /* API */
-
-    public static interface EventListener {
-        public void onViewHitBottom(View view);
-
-        public void onViewHitTop(View view);
-
-        public void onScrollChanged(BouncyScrollView scrollView, int l, int t, int oldl, int oldt);
+    /**
+     * No scroll assist, so let the card coast like a normal ScrollView would, in either render
+     * mode.
+     */
+    private void flingCard(float velocity) {
+        int end = ScrollMath.getFlingEndPosition(getCardPosition(), velocity, minimumFlingVelocity,
+                flingFriction, physicalCoeff, getMaxScrollHeight());
+        if (end != getCardPosition())
+            scrollAnimator.animateTo(AnimationFrameStats.TYPE_FLING, end, velocity, flingPhysics, null);
     }
 
-    public void resetPosition() {
-        post(new Runnable() {
-            @Override
-            public void run() {
-                viewContainer.setVisibility(INVISIBLE);
-                viewContainer.scrollTo(0, 1);
-                viewContainer.setVisibility(VISIBLE);
-            }
-        });
+    /**
+     * Is the user dragging a gesture that started on the card?
+     */
+    protected boolean isDraggingInside() {
+        return touchState.isDraggingInside();
     }
 
-    public void animateToStartingPosition() {
-        onScrollStopListener.setPause(true);
-        post(new Runnable() {
-            @Override
-            public void run() {
-                if (viewAnimator != null) viewAnimator.start();
-            }
-        });
+    /**
+     * Is the user dragging a gesture that started outside of the card?
+     */
+    protected boolean isDraggingOutside() {
+        return touchState.isDraggingOutside();
     }
 
-    private int getMaxScrollHeight() {
-        return topSpacer.getHeight() + (customView == null ? 0 : customView.getHeight());
+    /**
+     * Start stealing the drag from our card's children once it goes past the touch slop.
+     */
+    private boolean onInterceptCardDrag(MotionEvent ev) {
+        switch (ev.getAction()) {
+            case MotionEvent.ACTION_DOWN:
+                lastMotionY = ev.getY();
+                cardDrag.cancel();
+                addTouchSamples(ev);
+                break;
+            case MotionEvent.ACTION_MOVE:
+                addTouchSamples(ev);
+                if (touchState.isDraggingInside() && !nestedScrolling
+                        && Math.abs(ev.getY() - lastMotionY) > touchSlop
+                        && !canCardContentScroll(ev, ev.getY() > lastMotionY ? -1 : 1))
+                    startCardDrag(ev.getY());
+                break;
+            case MotionEvent.ACTION_CANCEL:
+            case MotionEvent.ACTION_UP:
+                cardDrag.end(ev.getY());
+                break;
+        }
+        return cardDrag.isDragging();
     }
 
-    /* Scroll Assist */
-
     /**
-     * Check if our cardview is beyond the thresholds of readability (eg if either the top edge
-     * of the CardView is near the bottom edge of the screen and vice versa). If so, scroll the
-     * CardView entirely off screen.
+     * Drag the card around ourselves. Moves only record samples, the card itself moves on the
+     * next frame.
      */
-    private void scrollOffScreenIfNecessary() {
-        if (!scrollAssist)
-            return;
-
-        int scrollY = getScrollY();
-        //
-        if (scrollY <= getBottomScrollAssistThreshold()) { // Should scroll down
-            scrollDownOffscreen();
-        } else if (scrollY >= getTopScrollAssistThreshold()) { // Should scroll up
-            scrollUpOffscreen();
+    private void onCardDrag(MotionEvent ev) {
+        switch (ev.getAction()) {
+            case MotionEvent.ACTION_DOWN:
+                lastMotionY = ev.getY();
+                addTouchSamples(ev);
+                break;
+            case MotionEvent.ACTION_MOVE:
+                addTouchSamples(ev);
+                if (!cardDrag.isDragging() && Math.abs(ev.getY() - lastMotionY) > touchSlop)
+                    startCardDrag(ev.getY());
+                cardDrag.onMove();
+                break;
+            case MotionEvent.ACTION_CANCEL:
+            case MotionEvent.ACTION_UP:
+                cardDrag.end(ev.getY());
+                break;
         }
     }
 
-    protected int getBottomScrollAssistThreshold() {
-        return (int) ((customView == null ? 0 : customView.getHeight()) * scrollAssistThreshold);
+    private void startCardDrag(float y) {
+        cardDrag.start(y);
+        if (getParent() != null)
+            getParent().requestDisallowInterceptTouchEvent(true);
     }
 
-    protected int getTopScrollAssistThreshold() {
-        return getHeight() - getBottomScrollAssistThreshold();
+    /**
+     * Event times are uptimeMillis and frame times are System.nanoTime(), both of which are the
+     * monotonic clock on Android.
+     */
+    private void addTouchSamples(MotionEvent ev) {
+        if (ev.getAction() == MotionEvent.ACTION_DOWN)
+            cardDrag.reset();
+        for (int i = 0, size = ev.getHistorySize(); i < size; i++) {
+            cardDrag.addSample(ev.getHistoricalEventTime(i) * 1000000, ev.getHistoricalY(i));
+        }
+        cardDrag.addSample(ev.getEventTime() * 1000000, ev.getY());
     }
 
-    protected void scrollUpOffscreen() {
-        scrollToPosition(getMaxScrollHeight(), scrollAssistDuration).start();
-    }
+    /**
+     * Does this MotionEvent land on our CardView? This gets hit multiple times per MotionEvent
+     * (and again by subclasses) so it only reads from cardBounds, which is kept in this view's
+     * content coordinates.
+     */
+    protected boolean isTouchingView(MotionEvent ev) {
+        if (customView == null || parked)
+            return false;
 
-    protected void scrollDownOffscreen() {
-        scrollToPosition(0, scrollAssistDuration).start();
+        float x = ev.getX() + getScrollX();
+        float y = ev.getY() + getScrollY() - viewContainer.getTranslationY();
+        return (x > cardBounds.left)
+                && (x < cardBounds.right)
+                && (y > cardBounds.top)
+                && (y < cardBounds.bottom);
     }
 
-    protected ObjectAnimator scrollToPosition(int position, int duration) {
-        final ObjectAnimator animator = ObjectAnimator.ofInt(this, "scrollY", getScrollY(), position);
-        animator.setDuration(duration);
-        animator.setInterpolator(new AccelerateInterpolator());
-        return animator;
+    /**
+     * Is there something under the finger inside the card that can still scroll in direction
+     * (negative is towards its top)? If so it gets the drag. Children that do nested scrolling
+     * never get this far, they've already started a nested scroll by the first move.
+     */
+    private boolean canCardContentScroll(MotionEvent ev, int direction) {
+        if (customView == null)
+            return false;
+        float x = ev.getX() + getScrollX() - cardBounds.left;
+        float y = ev.getY() + getScrollY() - viewContainer.getTranslationY() - cardBounds.top;
+        return canScrollVertically(viewContainer, x, y, direction);
     }
 
-    /* Getters & Setters */
+    /**
+     * x and y are in view's coordinates.
+     */
+    private static boolean canScrollVertically(View view, float x, float y, int direction) {
+        if (view.canScrollVertically(direction))
+            return true;
+        if (!(view instanceof ViewGroup))
+            return false;
 
-    public boolean isScrollAssist() {
-        return scrollAssist;
+        ViewGroup group = (ViewGroup) view;
+        x += group.getScrollX();
+        y += group.getScrollY();
+        for (int i = group.getChildCount() - 1; i >= 0; i--) {
+            View child = group.getChildAt(i);
+            if (child.getVisibility() != VISIBLE
+                    || x < child.getLeft() || x >= child.getRight()
+                    || y < child.getTop() || y >= child.getBottom())
+                continue;
+            return canScrollVertically(child, x - child.getLeft(), y - child.getTop(), direction);
+        }
+        return false;
     }
 
-    public void setScrollAssist(boolean scrollAssist) {
-        this.scrollAssist = scrollAssist;
+    /**
+     * Recalculate where our card lives relative to our content. Scrolling doesn't move the card
+     * in content coordinates so this only needs to happen on layout.
+     */
+    private void updateCardBounds() {
+        int left = 0;
+        int top = 0;
+        View view = viewContainer;
+        while (view != this && view != null) {
+            left += view.getLeft();
+            top += view.getTop();
+            View parent = (View) view.getParent();
+            if (parent != this && parent != null) {
+                left -= parent.getScrollX();
+                top -= parent.getScrollY();
+            }
+            view = parent;
+        }
+        cardBounds.set(left, top, left + viewContainer.getWidth(), top + viewContainer.getHeight());
     }
 
-    public int getScrollAssistDuration() {
-        return scrollAssistDuration;
+    /* Nested Scrolling */
+
+    /**
+     * Take vertical nested scrolls from anything inside the card. Only ever called on API 21+,
+     * older platforms fall back to canCardContentScroll() in onInterceptCardDrag.
+     */
+    @Override
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public boolean onStartNestedScroll(View child, View target, int nestedScrollAxes) {
+        return scrollable && customView != null && !parked
+                && (nestedScrollAxes & SCROLL_AXIS_VERTICAL) != 0;
     }
 
-    public void setScrollAssistDuration(int scrollAssistDuration) {
+    @Override
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public void onNestedScrollAccepted(View child, View target, int axes) {
+        super.onNestedScrollAccepted(child, target, axes);
+        nestedScrolling = true;
+        nestedFlung = false;
+        // Our own drag may have started on the same DOWN, the child has it now.
+        cardDrag.cancel();
+        grabCard();
+    }
+
+    /**
+     * If the card's been pulled away from its starting position, moving back towards it comes
+     * out of the card before the child gets to scroll.
+     */
+    @Override
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public void onNestedPreScroll(View target, int dx, int dy, int[] consumed) {
+        int offset = getCardPosition() - absoluteStartingPosition;
+        if (offset == 0 || (offset > 0) == (dy > 0))
+            return;
+        int dyConsumed = offset > 0 ? Math.max(dy, -offset) : Math.min(dy, -offset);
+        setCardPosition(getCardPosition() + dyConsumed);
+        consumed[1] = dyConsumed;
+    }
+
+    /**
+     * Whatever the child couldn't scroll moves the card.
+     */
+    @Override
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public void onNestedScroll(View target, int dxConsumed, int dyConsumed,
+                               int dxUnconsumed, int dyUnconsumed) {
+        if (dyUnconsumed != 0)
+            setCardPosition(getCardPosition() + dyUnconsumed);
+    }
+
+    /**
+     * A card that's off its starting position takes the whole fling, the child doesn't get to
+     * scroll its content underneath it.
+     */
+    @Override
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
+        if (getCardPosition() == absoluteStartingPosition)
+            return false;
+        releaseNestedScroll(velocityY);
+        return true;
+    }
+
+    /**
+     * If the child can't scroll any further in the fling's direction the fling goes to the card.
+     * consumed isn't enough to go on, RecyclerView and friends pass true even when they're
+     * already at that end.
+     */
+    @Override
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public boolean onNestedFling(View target, float velocityX, float velocityY, boolean consumed) {
+        if (velocityY == 0 || target.canScrollVertically((int) Math.signum(velocityY)))
+            return false;
+        releaseNestedScroll(velocityY);
+        return true;
+    }
+
+    @Override
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    public void onStopNestedScroll(View target) {
+        super.onStopNestedScroll(target);
+        if (!nestedScrolling)
+            return;
+        // Lifted without a fling, settle wherever the card was left.
+        if (!nestedFlung && getCardPosition() != absoluteStartingPosition)
+            releaseNestedScroll(0);
+        nestedScrolling = false;
+    }
+
+    private void releaseNestedScroll(float velocity) {
+        nestedFlung = true;
+        if (!flingWithScrollAssist(velocity))
+            flingCard(velocity);
+    }
+
+    private int lastT, lastOldT;
+
+    /**
+     * Bumped every time a card is shown, so dispatchCardPositionChanged() can tell whether a hit
+     * listener already replaced the card.
+     */
+    private int cardsShown = 0;
+
+    @Override
+    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+        super.onScrollChanged(l, t, oldl, oldt);
+        if (renderMode == RENDER_MODE_SCROLL)
+            dispatchCardPositionChanged(l, t, oldl, oldt);
+    }
+
+    /**
+     * Both render modes funnel card movement through here so listeners and scroll assist can't
+     * tell them apart.
+     */
+    private void dispatchCardPositionChanged(int l, int t, int oldl, int oldt) {
+        if (t == lastT && oldt == lastOldT)
+            return;
+        lastT = t;
+        lastOldT = oldt;
+
+        if (BouncyTrace.ENABLED) BouncyTrace.beginSection(BouncyTrace.DISPATCH);
+        try {
+            if (BouncyTrace.ENABLED) stats.framesDispatched++;
+            Object[] listeners = eventListeners.snapshot();
+            for (int i = 0; i < listeners.length; i++) {
+                EventListener listener = ListenerList.get(listeners, i);
+                listener.onScrollChanged(this, l, t, oldl, oldt);
+            }
+            if (!progressListeners.isEmpty()) dispatchProgress(t);
+
+            boolean showNext = false;
+            int cardsShownBefore = cardsShown;
+            if ((restoringState || resizeAnchorPending) && (t == 0 || t == getMaxScrollHeight())) {
+                setParked(true);
+            } else if (t == 0) {
+                setParked(true);
+                listeners = eventListeners.snapshot();
+                for (int i = 0; i < listeners.length; i++) {
+                    EventListener listener = ListenerList.get(listeners, i);
+                    listener.onViewHitBottom(customView);
+                }
+                showNext = true;
+            } else if (t == getMaxScrollHeight()) {
+                setParked(true);
+                listeners = eventListeners.snapshot();
+                for (int i = 0; i < listeners.length; i++) {
+                    EventListener listener = ListenerList.get(listeners, i);
+                    listener.onViewHitTop(customView);
+                }
+                showNext = true;
+            } else {
+                setParked(false);
+                onScrollStopListener.onScrollChanged(l, t, oldl, oldt);
+            }
+            if (!parked) {
+                applyScrollEffects(t);
+                positionStack(t);
+            }
+            onCardPositionChanged(t, oldt);
+            // Last, promoting the next card in deck mode moves it straight back to the start. If a
+            // listener already showed a card it owns this hit.
+            if (showNext && cardsShown == cardsShownBefore) cardDeck.showNext(false);
+        } finally {
+            if (BouncyTrace.ENABLED) BouncyTrace.endSection();
+        }
+    }
+
+    private void dispatchProgress(int position) {
+        int assistDirection = ScrollMath.getScrollAssistDirection(position, getHeight(), getCardHeight(), scrollAssistThreshold);
+        boolean crossedThreshold = assistDirection != lastAssistDirection;
+        lastAssistDirection = assistDirection;
+
+        boolean reachedStart = position == absoluteStartingPosition && !atStartingPosition;
+        atStartingPosition = position == absoluteStartingPosition;
+
+        float progress = ScrollMath.getProgress(position, absoluteStartingPosition, getMaxScrollHeight());
+        long now = FrameTicker.getInstance().nanoTime() / 1000000;
+        boolean sendProgress;
+        if (Float.isNaN(lastProgress) || progress == 0f || progress == 1f || progress == -1f) {
+            // Always let listeners see the end points.
+            sendProgress = progress != lastProgress;
+        } else {
+            sendProgress = Math.abs(progress - lastProgress) >= progressStep
+                    && now - lastProgressTime >= progressInterval;
+        }
+        if (sendProgress) {
+            lastProgress = progress;
+            lastProgressTime = now;
+        }
+
+        Object[] listeners = progressListeners.snapshot();
+        for (int i = 0; i < listeners.length; i++) {
+            ProgressListener listener = ListenerList.get(listeners, i);
+            if (sendProgress) listener.onProgress(this, progress);
+            if (crossedThreshold) listener.onThresholdCrossed(this, assistDirection);
+            if (reachedStart) listener.onReachedStart(this);
+        }
+    }
+
+    private void dispatchSettled() {
+        if (progressListeners.isEmpty())
+            return;
+        float progress = ScrollMath.getProgress(getCardPosition(), absoluteStartingPosition, getMaxScrollHeight());
+        Object[] listeners = progressListeners.snapshot();
+        for (int i = 0; i < listeners.length; i++) {
+            ProgressListener listener = ListenerList.get(listeners, i);
+            listener.onSettled(this, progress);
+        }
+    }
+
+    public boolean isParked() {
+        return parked;
+    }
+
+    /**
+     * Hide the card once it's off screen and bring it back in one step when it returns.
+     */
+    private void setParked(boolean parked) {
+        if (this.parked == parked)
+            return;
+        this.parked = parked;
+        viewContainer.setVisibility(parked ? INVISIBLE : VISIBLE);
+        if (parked) {
+            onScrollStopListener.cancel();
+            if (BouncyTrace.ENABLED) stats.cardsParked++;
+        }
+    }
+
+    private void applyScrollEffects(int position) {
+        if (customView == null)
+            return;
+        for (int i = 0, size = scrollEffects.size(); i < size; i++) {
+            scrollEffects.get(i).apply(this, customView, position);
+        }
+    }
+
+    /**
+     * Keep the peeking cards where they are while the card moves, moving each up a spot as the
+     * card heads off screen.
+     */
+    private void positionStack(int position) {
+        if (viewContainer.getPeekCount() == 0)
+            return;
+        float progress = ScrollMath.getProgress(position, absoluteStartingPosition, getMaxScrollHeight());
+        viewContainer.positionStack(Math.abs(progress), position - absoluteStartingPosition);
+    }
+
+    /**
+     * Called whenever the card moves, regardless of render mode. position is what scrollY would
+     * be in RENDER_MODE_SCROLL.
+     */
+    protected void onCardPositionChanged(int position, int oldPosition) {
+    }
+
+    /**
+     * Where is the card right now? 0 is just below the bottom edge and getMaxScrollHeight() is
+     * just above the top edge.
+     */
+    public int getCardPosition() {
+        return renderMode == RENDER_MODE_SCROLL ? getScrollY() : cardPosition;
+    }
+
+    /**
+     * Move the card to position, clamped to [0, getMaxScrollHeight()].
+     */
+    protected void setCardPosition(int position) {
+        if (renderMode == RENDER_MODE_SCROLL) {
+            scrollTo(getScrollX(), position);
+            return;
+        }
+
+        position = Math.max(0, Math.min(position, getMaxScrollHeight()));
+        if (position == cardPosition)
+            return;
+        int oldPosition = cardPosition;
+        cardPosition = position;
+        viewContainer.setTranslationY(getHeight() - position);
+        dispatchCardPositionChanged(0, position, 0, oldPosition);
+    }
+
+    /* API */
+
+    /**
+     * Creates and binds cards for setItem(), like a one item RecyclerView.Adapter. Views are
+     * recycled by view type so swapping between cards doesn't inflate once every type has been
+     * seen.
+     */
+    public static abstract class CardAdapter<T> {
+
+        /**
+         * Cards with the same view type must be interchangeable. Types must be >= 0.
+         */
+        public int getViewType(T item) {
+            return 0;
+        }
+
+        public abstract View createView(ViewGroup parent, int viewType);
+
+        /**
+         * Show item on view. view was created by createView() for getViewType(item).
+         */
+        public abstract void bind(View view, T item);
+    }
+
+    /**
+     * Builds a card for setCustomView(CardFactory). createView() runs on a background thread, so
+     * it mustn't touch views that are already attached.
+     */
+    public static interface CardFactory {
+        public View createView(Context context, ViewGroup parent);
+    }
+
+    public static interface PerformanceListener {
+        /**
+         * Called when an animation finishes or is cancelled. stats is reused, copy what you need.
+         */
+        public void onAnimationFrameStats(BouncyScrollView scrollView, AnimationFrameStats stats);
+    }
+
+    public static interface EventListener {
+        /**
+         * The card is off the bottom of the screen. If there's a queued item it's shown next,
+         * unless you show a card yourself from here, in which case the queue is left alone.
+         */
+        public void onViewHitBottom(View view);
+
+        /**
+         * Same as onViewHitBottom() but off the top.
+         */
+        public void onViewHitTop(View view);
+
+        public void onScrollChanged(BouncyScrollView scrollView, int l, int t, int oldl, int oldt);
+    }
+
+    /**
+     * Where the card is, without having to work it out from scroll offsets. Override what you
+     * need.
+     */
+    public static abstract class ProgressListener {
+
+        /**
+         * progress is 0 at the starting position, 1 once the card is off the top of the screen
+         * and -1 once it's off the bottom. Throttled by setProgressStep() and
+         * setProgressInterval(), but 0, 1 and -1 are always delivered.
+         */
+        public void onProgress(BouncyScrollView scrollView, float progress) {
+        }
+
+        /**
+         * The card moved past (or back inside) a scroll assist threshold. direction is the
+         * ScrollMath.ASSIST_* zone the card is in now: ASSIST_UP or ASSIST_DOWN if letting go
+         * would send it off screen, ASSIST_NONE if it would come back.
+         */
+        public void onThresholdCrossed(BouncyScrollView scrollView, int direction) {
+        }
+
+        public void onReachedStart(BouncyScrollView scrollView) {
+        }
+
+        /**
+         * The card stopped moving and nobody's touching it.
+         */
+        public void onSettled(BouncyScrollView scrollView, float progress) {
+        }
+    }
+
+    public void resetPosition() {
+        postTask(TASK_RESET_POSITION);
+    }
+
+    public void animateToStartingPosition() {
+        onScrollStopListener.setPause(true);
+        postTask(TASK_ANIMATE_TO_START);
+    }
+
+    private int getMaxScrollHeight() {
+        int offset = renderMode == RENDER_MODE_SCROLL ? topSpacer.getHeight() : getHeight();
+        return offset + getCardHeight();
+    }
+
+    /* Scroll Assist */
+
+    /**
+     * Check if our cardview is beyond the thresholds of readability (eg if either the top edge
+     * of the CardView is near the bottom edge of the screen and vice versa). If so, scroll the
+     * CardView entirely off screen.
+     */
+    private void scrollOffScreenIfNecessary() {
+        if (!scrollAssist)
+            return;
+
+        if (BouncyTrace.ENABLED) BouncyTrace.beginSection(BouncyTrace.SCROLL_ASSIST);
+        try {
+            switch (ScrollMath.getScrollAssistDirection(
+                    getCardPosition(), getHeight(), getCardHeight(), scrollAssistThreshold)) {
+                case ScrollMath.ASSIST_DOWN:
+                    if (BouncyTrace.ENABLED) stats.assistsTriggered++;
+                    scrollDownOffscreen();
+                    break;
+                case ScrollMath.ASSIST_UP:
+                    if (BouncyTrace.ENABLED) stats.assistsTriggered++;
+                    scrollUpOffscreen();
+                    break;
+            }
+        } finally {
+            if (BouncyTrace.ENABLED) BouncyTrace.endSection();
+        }
+    }
+
+    public int getBottomScrollAssistThreshold() {
+        return ScrollMath.getBottomScrollAssistThreshold(getCardHeight(), scrollAssistThreshold);
+    }
+
+    public int getTopScrollAssistThreshold() {
+        return ScrollMath.getTopScrollAssistThreshold(getHeight(), getCardHeight(), scrollAssistThreshold);
+    }
+
+    private int getCardHeight() {
+        return customView == null ? 0 : customView.getHeight();
+    }
+
+    protected void scrollUpOffscreen() {
+        scrollToPosition(getMaxScrollHeight(), null);
+    }
+
+    protected void scrollDownOffscreen() {
+        scrollToPosition(0, null);
+    }
+
+    /**
+     * Move the card to position using our scroll assist physics, then run endAction (if any).
+     * If we're already animating, the card heads to the new position from wherever it is without
+     * losing its velocity.
+     */
+    protected void scrollToPosition(int position, Runnable endAction) {
+        scrollAnimator.animateTo(AnimationFrameStats.TYPE_SCROLL_ASSIST, position, scrollAssistPhysics, endAction);
+    }
+
+    /**
+     * Are we currently moving the card ourselves?
+     */
+    protected boolean isAnimating() {
+        return scrollAnimator.isRunning();
+    }
+
+    /* Getters & Setters */
+
+    public boolean isScrollAssist() {
+        return scrollAssist;
+    }
+
+    public void setScrollAssist(boolean scrollAssist) {
+        this.scrollAssist = scrollAssist;
+    }
+
+    public int getScrollAssistDuration() {
+        return scrollAssistDuration;
+    }
+
+    public void setScrollAssistDuration(int scrollAssistDuration) {
         this.scrollAssistDuration = scrollAssistDuration;
+        setScrollAssistPhysics(new InterpolatorScrollPhysics(new AccelerateInterpolator(), scrollAssistDuration));
+    }
+
+    public float getScrollAssistThreshold() {
+        return scrollAssistThreshold;
+    }
+
+    public void setScrollAssistThreshold(float scrollAssistThreshold) {
+        this.scrollAssistThreshold = scrollAssistThreshold;
+    }
+
+    public Interpolator getInterpolator() {
+        return viewAnimationInterpolator;
+    }
+
+    public void setInterpolator(Interpolator viewAnimationInterpolator) {
+        this.viewAnimationInterpolator = viewAnimationInterpolator;
+        scrollPhysics = new InterpolatorScrollPhysics(viewAnimationInterpolator, viewAnimationDuration);
+        customScrollPhysics = false;
+    }
+
+    public int getViewAnimationDuration() {
+        return viewAnimationDuration;
+    }
+
+    /**
+     * Rebuilds the default spring, or the interpolator from setInterpolator(), over the new
+     * duration. Physics from setScrollPhysics() are left exactly as they are.
+     */
+    public void setViewAnimationDuration(int viewAnimationDuration) {
+        this.viewAnimationDuration = viewAnimationDuration;
+        if (customScrollPhysics)
+            return;
+        scrollPhysics = scrollPhysics instanceof InterpolatorScrollPhysics
+                ? new InterpolatorScrollPhysics(viewAnimationInterpolator, viewAnimationDuration)
+                : SpringScrollPhysics.overshoot(viewAnimationDuration);
+    }
+
+    public ScrollPhysics getScrollPhysics() {
+        return scrollPhysics;
+    }
+
+    /**
+     * Swap out how the card moves into its starting position, eg SpringScrollPhysics.overshoot().
+     * Later setViewAnimationDuration() calls won't touch it.
+     */
+    public void setScrollPhysics(ScrollPhysics scrollPhysics) {
+        this.scrollPhysics = scrollPhysics;
+        customScrollPhysics = true;
+    }
+
+    public ScrollPhysics getScrollAssistPhysics() {
+        return scrollAssistPhysics;
+    }
+
+    /**
+     * Swap out how scroll assist (and animated setCustomView calls) move the card.
+     */
+    public void setScrollAssistPhysics(ScrollPhysics scrollAssistPhysics) {
+        this.scrollAssistPhysics = scrollAssistPhysics;
+    }
+
+    public float getRelativeStartingPosition() {
+        return relativeStartingPosition;
+    }
+
+    public void setRelativeStartingPosition(float relativeStartingPosition) {
+        this.relativeStartingPosition = relativeStartingPosition;
+        setAbsoluteStartingPosition(relativeStartingPosition, getHeight());
+    }
+
+    private void setAbsoluteStartingPosition(float relativeStartingPosition, int height) {
+        absoluteStartingPosition = ScrollMath.getAbsoluteStartingPosition(relativeStartingPosition, height);
+    }
+
+    public float getAbsoluteStartingPosition() {
+        return absoluteStartingPosition;
+    }
+
+    public View getCustomView() {
+        return customView;
+    }
+
+    public void setCustomView(final View customView) {
+        setCustomView(customView, false);
+    }
+
+    public void setCustomView(final View customView, boolean animate) {
+        setCustomView(customView, animate, 200);
+    }
+
+    public void setCustomView(final View customView, boolean animate, int duration) {
+        cancelPendingInflation();
+        showCustomView(customView, animate, duration);
+    }
+
+    /**
+     * Inflate layoutResId off the main thread and show it once it's ready. See
+     * setCustomView(CardFactory, boolean).
+     */
+    public void setCustomView(final int layoutResId, boolean animate) {
+        setCustomView(new CardFactory() {
+            @Override
+            public View createView(Context context, ViewGroup parent) {
+                return LayoutInflater.from(context).inflate(layoutResId, parent, false);
+            }
+        }, animate);
+    }
+
+    /**
+     * Build the next card on a background thread so heavy layouts don't hold up a frame. The
+     * placeholder view is shown until the card is ready, then the card replaces it in place on
+     * the next frame. Any later setCustomView() call cancels this one.
+     */
+    public void setCustomView(CardFactory factory, boolean animate) {
+        setCustomView(getPlaceholderView(), animate);
+        pendingInflation = new CardInflation(factory);
+        getInflationExecutor().execute(pendingInflation);
+    }
+
+    private void showCustomView(View customView, boolean animate, int duration) {
+        cardsShown++;
+        if (this.customView == null || !animate) {
+            setParked(false);
+            resetPosition();
+            this.customView = customView;
+            postTask(TASK_ATTACH_CARD);
+            animateToStartingPosition();
+        } else {
+            onScrollStopListener.setPause(true);
+            if (swapPhysics == null || swapPhysics.getDuration() != duration)
+                swapPhysics = new InterpolatorScrollPhysics(new AccelerateInterpolator(), duration);
+            // A card that was still waiting for the last swap never made it on screen.
+            if (pendingCustomView != null && pendingCustomView != customView)
+                recycleCard(pendingCustomView);
+            pendingCustomView = customView;
+            scrollAnimator.animateTo(AnimationFrameStats.TYPE_SWAP, 1, swapPhysics, swapToPendingCustomViewRunnable);
+        }
+    }
+
+    public View getPlaceholderView() {
+        if (placeholderView == null)
+            placeholderView = new ProgressBar(getContext());
+        return placeholderView;
+    }
+
+    /**
+     * What to show while setCustomView(CardFactory) is waiting on its card. Defaults to an
+     * indeterminate ProgressBar. Keep it cheap, it's built on the main thread.
+     */
+    public void setPlaceholderView(View placeholderView) {
+        this.placeholderView = placeholderView;
+    }
+
+    public CardAdapter<?> getCardAdapter() {
+        return cardAdapter;
+    }
+
+    /**
+     * Let us create and recycle our cards. Use setItem() to show an item once this is set.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void setCardAdapter(CardAdapter<T> cardAdapter) {
+        cardDeck.clear();
+        this.cardAdapter = (CardAdapter<Object>) cardAdapter;
+        cardViewPool.clear();
+    }
+
+    public void setItem(Object item) {
+        setItem(item, false);
+    }
+
+    /**
+     * Show item using our CardAdapter. If the current card has the same view type and we're not
+     * animating it's simply rebound, otherwise we reuse a recycled view of that type before asking
+     * the adapter to create one. An animated swap always gets a second card so the outgoing one
+     * doesn't leave showing the new item. The card being replaced goes back into the pool once
+     * it's off screen.
+     */
+    public void setItem(Object item, boolean animate) {
+        if (cardAdapter == null)
+            throw new IllegalStateException("setItem() called without a CardAdapter");
+
+        int viewType = cardAdapter.getViewType(item);
+        Object currentCardType = customView == null ? null : customView.getTag(R.id.card_view_type);
+        View card;
+        if (!animate && currentCardType != null && (Integer) currentCardType == viewType) {
+            card = customView;
+        } else {
+            card = obtainCard(viewType);
+        }
+        cardAdapter.bind(card, item);
+        setCustomView(card, animate);
+    }
+
+    /**
+     * How many detached cards of each view type we keep around for reuse. Defaults to 4.
+     */
+    public void setMaxRecycledCards(int maxRecycledCards) {
+        cardViewPool.setMaxPerType(maxRecycledCards);
+    }
+
+    /**
+     * Queue item to be shown after the current card (and everything queued before it) is
+     * dismissed. Needs a CardAdapter.
+     */
+    public void enqueueItem(Object item) {
+        if (cardAdapter == null)
+            throw new IllegalStateException("enqueueItem() called without a CardAdapter");
+        cardDeck.enqueue(item);
+    }
+
+    public int getQueuedItemCount() {
+        return cardDeck.size();
+    }
+
+    public void clearItemQueue() {
+        cardDeck.clear();
+    }
+
+    /**
+     * Skip straight to the next queued item.
+     *
+     * @return false if nothing was queued.
+     */
+    public boolean showNextItem(boolean animate) {
+        return cardDeck.showNext(animate);
+    }
+
+    public int getPrefetchDepth() {
+        return cardDeck.getPrefetchDepth();
+    }
+
+    /**
+     * How many queued items get their cards bound and measured ahead of time, while the main
+     * thread is idle. Defaults to 1. Each prefetched card holds on to a view, so keep this small.
+     */
+    public void setPrefetchDepth(int prefetchDepth) {
+        cardDeck.setPrefetchDepth(prefetchDepth);
+    }
+
+    /**
+     * Fraction of queued items whose card was already prefetched when they were shown.
+     */
+    public float getPrefetchHitRate() {
+        return cardDeck.getPrefetchHitRate();
     }
 
-    public float getScrollAssistThreshold() {
-        return scrollAssistThreshold;
+    public int getPrefetchHits() {
+        return cardDeck.getPrefetchHits();
     }
 
-    public void setScrollAssistThreshold(float scrollAssistThreshold) {
-        this.scrollAssistThreshold = scrollAssistThreshold;
+    public int getPrefetchMisses() {
+        return cardDeck.getPrefetchMisses();
     }
 
-    public Interpolator getInterpolator() {
-        return viewAnimationInterpolator;
+    public int getStackSize() {
+        return stackSize;
     }
 
-    public void setInterpolator(Interpolator viewAnimationInterpolator) {
-        this.viewAnimationInterpolator = viewAnimationInterpolator;
-        initViewAnimator();
+    /**
+     * Deck mode: show up to stackSize - 1 of the queued items (see enqueueItem()) peeking out from
+     * under the card. Only the peeking cards are attached, however long the queue is, and a
+     * dismissed card's replacement is promoted from the stack without a layout pass. Defaults
+     * to 1, just the card.
+     */
+    public void setStackSize(int stackSize) {
+        if (stackSize < 1)
+            throw new IllegalArgumentException("stackSize must be >= 1");
+        if (this.stackSize == stackSize)
+            return;
+        this.stackSize = stackSize;
+        // Peeks hang out below the card's bounds.
+        boolean stacked = stackSize > 1;
+        viewContainer.setClipChildren(!stacked);
+        ((ViewGroup) viewContainer.getParent()).setClipChildren(!stacked);
+        cardDeck.setPeekCount(stackSize - 1);
     }
 
-    public int getViewAnimationDuration() {
-        return viewAnimationDuration;
+    public int getStackOffset() {
+        return stackOffset;
     }
 
-    public void setViewAnimationDuration(int viewAnimationDuration) {
-        this.viewAnimationDuration = viewAnimationDuration;
-        initViewAnimator();
+    /**
+     * How much lower each card in the stack is than the one in front of it, in px. Defaults to
+     * 8dp.
+     */
+    public void setStackOffset(int stackOffset) {
+        this.stackOffset = stackOffset;
+        viewContainer.setStackStyle(stackOffset, stackScale);
+        positionStack(getCardPosition());
     }
 
-    public float getRelativeStartingPosition() {
-        return relativeStartingPosition;
+    public float getStackScale() {
+        return stackScale;
     }
 
-    public void setRelativeStartingPosition(float relativeStartingPosition) {
-        this.relativeStartingPosition = relativeStartingPosition;
-        setAbsoluteStartingPosition(relativeStartingPosition, getHeight());
-        initViewAnimator();
+    /**
+     * How much smaller each card in the stack is than the one in front of it, as a fraction of
+     * full size. Defaults to 0.05.
+     */
+    public void setStackScale(float stackScale) {
+        this.stackScale = stackScale;
+        viewContainer.setStackStyle(stackOffset, stackScale);
+        positionStack(getCardPosition());
     }
 
-    private void setAbsoluteStartingPosition(float relativeStartingPosition, int height) {
-        absoluteStartingPosition = (int) ((1 - relativeStartingPosition) * height);
+    /* Deck */
+
+    void setPeekCards(View[] cards, int count) {
+        if (count == 0 && viewContainer.getPeekCount() == 0)
+            return;
+        viewContainer.setPeekCards(cards, count);
+        positionStack(getCardPosition());
     }
 
-    public float getAbsoluteStartingPosition() {
-        return absoluteStartingPosition;
+    boolean isPeeking(View card) {
+        return card.getParent() == viewContainer && card != customView;
     }
 
-    public View getCustomView() {
-        return customView;
+    /**
+     * The card behind ours is already attached, laid out and sitting where our card started, so
+     * it takes over right there. Nothing is posted and nothing re-enters from the bottom.
+     */
+    void promoteCard(View card) {
+        cancelPendingInflation();
+        pendingCustomView = null;
+        scrollAnimator.stop();
+        onScrollStopListener.setPause(false);
+        pendingTasks &= ~(TASK_RESET_POSITION | TASK_ATTACH_CARD | TASK_ANIMATE_TO_START);
+        removeCallbacks(resetPositionRunnable);
+        removeCallbacks(attachCustomViewRunnable);
+        removeCallbacks(animateToStartingPositionRunnable);
+        entryWaitingForLayout = false;
+
+        cardsShown++;
+        customView = card;
+        recycleCard(viewContainer.swapCard(card));
+        setParked(false);
+        setCardPosition(absoluteStartingPosition);
+        applyScrollEffects(absoluteStartingPosition);
+        if (BouncyTrace.ENABLED) stats.cardsPromoted++;
     }
 
-    public void setCustomView(final View customView) {
-        setCustomView(customView, false);
+    /* Card Recycling */
+
+    private View obtainCard(int viewType) {
+        View card = cardViewPool.acquire(viewType);
+        if (card == null) {
+            card = cardAdapter.createView(viewContainer, viewType);
+            card.setTag(R.id.card_view_type, viewType);
+        }
+        return card;
     }
 
-    public void setCustomView(final View customView, boolean animate) {
-        setCustomView(customView, animate, 200);
+    /**
+     * Bind and measure a card for item without attaching it.
+     */
+    View prefetchCard(Object item) {
+        View card = obtainCard(cardAdapter.getViewType(item));
+        cardAdapter.bind(card, item);
+        viewContainer.premeasure(card);
+        return card;
     }
 
-    public void setCustomView(final View customView, boolean animate, int duration) {
-        if (this.customView == null || !animate) {
-            resetPosition();
-            this.customView = customView;
-            post(new Runnable() {
-                @Override
-                public void run() {
-                    viewContainer.removeAllViews();
-                    viewContainer.addView(customView);
-                }
-            });
-            animateToStartingPosition();
-        } else {
-            onScrollStopListener.setPause(true);
-            ObjectAnimator scrollDown = scrollToPosition(1, duration);
-            scrollDown.addListener(new SimpleAnimationListener() {
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                    setCustomView(customView);
-                }
-            });
-            scrollDown.start();
-        }
+    /**
+     * Hand a card back to the pool if our adapter made it.
+     */
+    void recycleCard(View card) {
+        if (card != null)
+            viewContainer.removePeekCard(card);
+        Object viewType = card == null ? null : card.getTag(R.id.card_view_type);
+        if (viewType != null)
+            cardViewPool.release((Integer) viewType, card);
     }
 
     public boolean isScrollable() {
@@ -414,26 +1675,227 @@ public class BouncyScrollView extends ScrollView {
         this.scrollable = scrollable;
     }
 
+    public int getRenderMode() {
+        return renderMode;
+    }
+
+    /**
+     * Either RENDER_MODE_SCROLL or RENDER_MODE_TRANSLATION. The card keeps its position when
+     * switching.
+     */
+    public void setRenderMode(int renderMode) {
+        if (this.renderMode == renderMode)
+            return;
+        final int position = getCardPosition();
+        this.renderMode = renderMode;
+
+        int spacerVisibility = renderMode == RENDER_MODE_SCROLL ? VISIBLE : GONE;
+        topSpacer.setVisibility(spacerVisibility);
+        bottomSpacer.setVisibility(spacerVisibility);
+
+        if (renderMode == RENDER_MODE_TRANSLATION) {
+            scrollTo(0, 0);
+            cardPosition = position;
+            viewContainer.setTranslationY(getHeight() - position);
+        } else {
+            viewContainer.setTranslationY(0);
+            // The spacers need to be laid out before we can scroll past them.
+            pendingScrollPosition = position;
+            postTask(TASK_SCROLL_TO_CARD);
+        }
+    }
+
+    /**
+     * Effects are applied in the order they were added, all in the same pass.
+     */
+    public void addScrollEffect(ScrollEffect scrollEffect) {
+        scrollEffects.add(scrollEffect);
+    }
+
+    public void removeScrollEffect(ScrollEffect scrollEffect) {
+        scrollEffects.remove(scrollEffect);
+    }
+
+    /**
+     * Runtime counters for this view. These only count when the BOUNCY_TRACE build flag is on.
+     */
+    public Stats getStats() {
+        return stats;
+    }
+
+    /**
+     * Get told how every animation performed, eg to track jank per card type. Once set we also
+     * keep the last FRAME_STATS_HISTORY animations around for dumpFrameStats(). Pass null to
+     * stop collecting.
+     */
+    public void setPerformanceListener(PerformanceListener performanceListener) {
+        this.performanceListener = performanceListener;
+        if (performanceListener != null && frameStatsHistory == null) {
+            frameStatsHistory = new FrameStatsRing(FRAME_STATS_HISTORY);
+            float refreshRate = ((WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE))
+                    .getDefaultDisplay().getRefreshRate();
+            frameIntervalNanos = (long) (1000000000 / refreshRate);
+        }
+    }
+
+    public PerformanceListener getPerformanceListener() {
+        return performanceListener;
+    }
+
+    /**
+     * The most recent animations' frame stats, or null if we've never had a PerformanceListener.
+     */
+    public FrameStatsRing getFrameStatsHistory() {
+        return frameStatsHistory;
+    }
+
+    /**
+     * Write out the most recent animations' frame stats, oldest first.
+     */
+    public void dumpFrameStats(PrintWriter writer) {
+        if (frameStatsHistory != null) frameStatsHistory.dump(writer);
+    }
+
     public EventListener getEventListener() {
         return eventListener;
     }
 
+    /**
+     * Replaces the listener set by the last call to setEventListener(). Listeners added with
+     * addEventListener() are left alone.
+     */
     public void setEventListener(EventListener eventListener) {
+        eventListeners.remove(this.eventListener);
         this.eventListener = eventListener;
+        eventListeners.add(eventListener);
+    }
+
+    public void addEventListener(EventListener eventListener) {
+        eventListeners.add(eventListener);
+    }
+
+    public void removeEventListener(EventListener eventListener) {
+        if (eventListener == this.eventListener)
+            this.eventListener = null;
+        eventListeners.remove(eventListener);
+    }
+
+    /**
+     * If we have a card on screen the listener hears where it is straight away, and which
+     * threshold it's past if any, rather than waiting for it to move.
+     */
+    public void addProgressListener(ProgressListener progressListener) {
+        if (progressListener == null || progressListeners.contains(progressListener))
+            return;
+        // Nobody was listening, so nothing's been keeping track.
+        boolean stale = progressListeners.isEmpty();
+        progressListeners.add(progressListener);
+        if (getHeight() == 0 || customView == null)
+            return;
+
+        int position = getCardPosition();
+        float progress = ScrollMath.getProgress(position, absoluteStartingPosition, getMaxScrollHeight());
+        int assistDirection = ScrollMath.getScrollAssistDirection(position, getHeight(), getCardHeight(), scrollAssistThreshold);
+        if (stale) {
+            lastProgress = progress;
+            lastProgressTime = FrameTicker.getInstance().nanoTime() / 1000000;
+            lastAssistDirection = assistDirection;
+            atStartingPosition = position == absoluteStartingPosition;
+        }
+        progressListener.onProgress(this, progress);
+        if (assistDirection != ScrollMath.ASSIST_NONE)
+            progressListener.onThresholdCrossed(this, assistDirection);
+    }
+
+    public void removeProgressListener(ProgressListener progressListener) {
+        progressListeners.remove(progressListener);
+    }
+
+    public float getProgressStep() {
+        return progressStep;
+    }
+
+    /**
+     * Only report progress once it's changed by at least this much, e.g. 0.01f for every percent.
+     */
+    public void setProgressStep(float progressStep) {
+        this.progressStep = progressStep;
+    }
+
+    public int getProgressInterval() {
+        return progressInterval;
+    }
+
+    /**
+     * Report progress at most once every progressInterval milliseconds.
+     */
+    public void setProgressInterval(int progressInterval) {
+        this.progressInterval = progressInterval;
     }
 
     /* Utility */
-    public class OnScrollStopListener {
+
+    /**
+     * Counters for tracking down scroll performance. All zeros unless BOUNCY_TRACE is on.
+     */
+    public static class Stats {
+        private int framesDispatched;
+        private int assistsTriggered;
+        private int animationsStarted;
+        private int animationsCancelled;
+        private int cardsParked;
+        private int cardsPromoted;
 
         /**
-         * How often we should check if the ScrollView has stopped scrolling in millis.
-         * This Runnable is only started after the user has started scrolling.
-         * 16 millis = 1 frame @ 60fps.
+         * How many times the card moved and we dispatched it to listeners and effects.
          */
-        private static final int DELAY = 32;
+        public int getFramesDispatched() {
+            return framesDispatched;
+        }
+
+        public int getAssistsTriggered() {
+            return assistsTriggered;
+        }
+
+        public int getAnimationsStarted() {
+            return animationsStarted;
+        }
+
+        /**
+         * Animations that were stopped or retargeted before they finished.
+         */
+        public int getAnimationsCancelled() {
+            return animationsCancelled;
+        }
+
+        /**
+         * How many times the card left the screen and stopped being drawn.
+         */
+        public int getCardsParked() {
+            return cardsParked;
+        }
+
+        /**
+         * How many times a card was promoted from the stack in deck mode.
+         */
+        public int getCardsPromoted() {
+            return cardsPromoted;
+        }
+
+        public void reset() {
+            cardsParked = 0;
+            cardsPromoted = 0;
+            framesDispatched = 0;
+            assistsTriggered = 0;
+            animationsStarted = 0;
+            animationsCancelled = 0;
+        }
+    }
+
+    public class OnScrollStopListener {
 
         /**
-         * The y position we received last check.
+         * The y position we saw on the last frame.
          */
         private int oldY = 0;
 
@@ -449,42 +1911,47 @@ public class BouncyScrollView extends ScrollView {
         private boolean pause = false;
 
         /**
-         * Runnable to compare the current to past scroll states.
+         * Do we have a frame check in flight? We only ever keep one queued so scrolling doesn't
+         * churn the message queue, and nothing is queued at all once the view has settled.
+         */
+        private boolean frameCheckScheduled = false;
+
+        /**
+         * Runs on every display frame while registered with the FrameTicker and compares the
+         * current to past scroll states. Stays registered for as long as the view is moving.
          */
-        private Runnable checkScrollView = new Runnable() {
+        private FrameDispatcher.Client checkScrollView = new FrameDispatcher.Client() {
             @Override
-            public void run() {
-                int y = getScrollY();
-                if (y == oldY && !userFingerDown && !viewAnimator.isRunning()) {
-                    onScrollStopped();
-                } else {
+            public void onFrame(long frameTimeNanos) {
+                int y = getCardPosition();
+                if (y != oldY) {
                     oldY = y;
-                    postDelayedRunnableCheck(DELAY);
+                } else if (!isAnimating()) {
+                    cancel();
+                    if (!userFingerDown) {
+                        dispatchSettled();
+                        onScrollStopped();
+                    }
                 }
+                // Finger is down but not moving: go idle, lifting the finger will check again.
             }
         };
 
         public void onScrollChanged(int l, int t, int oldl, int oldt) {
-            //TODO: change this to t?
-            oldY = oldt;
-            postDelayedRunnableCheck(DELAY);
+            oldY = t;
+            scheduleFrameCheck();
         }
 
 
         public void onInterceptTouchEvent(MotionEvent ev) {
-            switch (ev.getAction()) {
-                case MotionEvent.ACTION_DOWN:
-                    userFingerDown = true;
-                    break;
-                case MotionEvent.ACTION_CANCEL:
-                case MotionEvent.ACTION_UP:
-                    userFingerDown = false;
-                    postDelayedRunnableCheck(0);
-                    break;
-            }
+            onTouch(ev);
         }
 
         public void onTouchEvent(MotionEvent ev) {
+            onTouch(ev);
+        }
+
+        private void onTouch(MotionEvent ev) {
             switch (ev.getAction()) {
                 case MotionEvent.ACTION_DOWN:
                     userFingerDown = true;
@@ -492,7 +1959,8 @@ public class BouncyScrollView extends ScrollView {
                 case MotionEvent.ACTION_CANCEL:
                 case MotionEvent.ACTION_UP:
                     userFingerDown = false;
-                    postDelayedRunnableCheck(0);
+                    if (performanceListener != null) lastTouchUpNanos = FrameTicker.getInstance().nanoTime();
+                    scheduleFrameCheck();
                     break;
             }
         }
@@ -502,11 +1970,36 @@ public class BouncyScrollView extends ScrollView {
         }
 
         /**
-         * Check for scroll stoppage again in the future.
+         * Check for scroll stoppage again on the next frame.
+         */
+        private void scheduleFrameCheck() {
+            if (frameCheckScheduled)
+                return;
+            frameCheckScheduled = true;
+            FrameTicker.getInstance().register(checkScrollView);
+        }
+
+        /**
+         * Is the card moving, or being held, and hasn't stopped yet?
+         */
+        private boolean isWaitingToSettle() {
+            return frameCheckScheduled || userFingerDown;
+        }
+
+        /**
+         * Drop the queued frame check, if any.
+         */
+        private void cancel() {
+            FrameTicker.getInstance().unregister(checkScrollView);
+            frameCheckScheduled = false;
+        }
+
+        /**
+         * Forget everything, including a finger that went down before we were detached.
          */
-        private void postDelayedRunnableCheck(int delay) {
-            removeCallbacks(checkScrollView);
-            postDelayed(checkScrollView, delay);
+        private void reset() {
+            cancel();
+            userFingerDown = false;
         }
 
         private void onScrollStopped() {
@@ -515,21 +2008,280 @@ public class BouncyScrollView extends ScrollView {
         }
     }
 
-    private static class SimpleAnimationListener implements Animator.AnimatorListener {
+    /* Lifecycle */
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (interruptedInflation != null) {
+            CardFactory factory = interruptedInflation;
+            interruptedInflation = null;
+            pendingInflation = new CardInflation(factory);
+            getInflationExecutor().execute(pendingInflation);
+        }
+        for (int task = TASK_RESET_POSITION; task <= TASK_SCROLL_TO_CARD; task <<= 1) {
+            if ((pendingTasks & task) != 0)
+                post(getTaskRunnable(task));
+        }
+        cardDeck.schedulePrefetch();
+        if (settleInterrupted) {
+            // Picks scroll assist back up if we were detached with the card part way off screen.
+            settleInterrupted = false;
+            onScrollStopListener.scheduleFrameCheck();
+        }
+    }
+
+    /**
+     * Nothing we've queued on the UI thread, the choreographer or the inflation thread may
+     * outlive our window: all of it holds on to us and our card. Anything that still needs doing
+     * is remembered and picked up again in onAttachedToWindow().
+     */
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        for (int task = TASK_RESET_POSITION; task <= TASK_SCROLL_TO_CARD; task <<= 1) {
+            removeCallbacks(getTaskRunnable(task));
+        }
+
+        if (pendingCustomView != null) {
+            // We were animating the old card out, skip straight to the new one.
+            customView = pendingCustomView;
+            pendingCustomView = null;
+            pendingTasks |= TASK_RESET_POSITION | TASK_ATTACH_CARD | TASK_ANIMATE_TO_START;
+        } else if (scrollAnimator.isRunning() && scrollAnimator.getType() == AnimationFrameStats.TYPE_ENTRY) {
+            pendingTasks |= TASK_ANIMATE_TO_START;
+        } else {
+            settleInterrupted = scrollAnimator.isRunning() || cardDrag.isDragging()
+                    || onScrollStopListener.isWaitingToSettle();
+        }
+        scrollAnimator.stop();
+        onScrollStopListener.reset();
+        cardDrag.cancel();
+        nestedScrolling = false;
+
+        if (pendingInflation != null) {
+            CardFactory factory = pendingInflation.factory;
+            cancelPendingInflation();
+            interruptedInflation = factory;
+        }
+        cardDeck.cancelPrefetch();
+
+        if (velocityTracker != null) {
+            velocityTracker.recycle();
+            velocityTracker = null;
+        }
+        touchState.reset();
+    }
+
+    private void postTask(int task) {
+        Runnable runnable = getTaskRunnable(task);
+        pendingTasks |= task;
+        removeCallbacks(runnable);
+        post(runnable);
+    }
+
+    private Runnable getTaskRunnable(int task) {
+        switch (task) {
+            case TASK_RESET_POSITION:
+                return resetPositionRunnable;
+            case TASK_ANIMATE_TO_START:
+                return animateToStartingPositionRunnable;
+            case TASK_ATTACH_CARD:
+                return attachCustomViewRunnable;
+            case TASK_SCROLL_TO_CARD:
+                return scrollToCardRunnable;
+            default:
+                throw new IllegalArgumentException("Unknown task " + task);
+        }
+    }
+
+    /* Reusable runnables so swapping cards doesn't allocate */
+
+    private final Runnable resetPositionRunnable = new Runnable() {
+        @Override
+        public void run() {
+            pendingTasks &= ~TASK_RESET_POSITION;
+            viewContainer.setVisibility(INVISIBLE);
+            viewContainer.scrollTo(0, 1);
+            setParked(false);
+            viewContainer.setVisibility(VISIBLE);
+        }
+    };
+
+    private final Runnable animateToStartingPositionRunnable = new Runnable() {
+        @Override
+        public void run() {
+            pendingTasks &= ~TASK_ANIMATE_TO_START;
+            if (getHeight() == 0) {
+                // We don't know where the starting position is yet.
+                entryWaitingForLayout = true;
+                return;
+            }
+            setParked(false);
+            scrollAnimator.start(AnimationFrameStats.TYPE_ENTRY, 1, absoluteStartingPosition,
+                    scrollPhysics, unpauseOnScrollStopListener);
+        }
+    };
+
+    private final Runnable attachCustomViewRunnable = new Runnable() {
+        @Override
+        public void run() {
+            pendingTasks &= ~TASK_ATTACH_CARD;
+            recycleCard(viewContainer.swapCard(customView));
+        }
+    };
+
+    private final Runnable scrollToCardRunnable = new Runnable() {
+        @Override
+        public void run() {
+            pendingTasks &= ~TASK_SCROLL_TO_CARD;
+            scrollTo(getScrollX(), pendingScrollPosition);
+        }
+    };
+
+    private final Runnable swapToPendingCustomViewRunnable = new Runnable() {
+        @Override
+        public void run() {
+            View customView = pendingCustomView;
+            pendingCustomView = null;
+            showCustomView(customView, false, 0);
+        }
+    };
+
+    private Runnable unpauseOnScrollStopListener = new Runnable() {
+        @Override
+        public void run() {
+            onScrollStopListener.setPause(false);
+        }
+    };
+
+    /* Async Inflation */
+
+    private static Executor getInflationExecutor() {
+        if (inflationExecutor == null) {
+            inflationExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, "BouncyCardInflater");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return inflationExecutor;
+    }
+
+    private void cancelPendingInflation() {
+        // A card set while we're detached wins over one that was inflating when we left.
+        interruptedInflation = null;
+        if (pendingInflation != null) {
+            pendingInflation.cancelled = true;
+            mainHandler.removeCallbacks(pendingInflation);
+            pendingInflation = null;
+        }
+    }
+
+    /**
+     * Swap an inflated card in for the placeholder without replaying the entry animation.
+     */
+    private void onCardInflated(View card) {
+        View placeholder = getPlaceholderView();
+        if (pendingCustomView == placeholder) {
+            pendingCustomView = card;
+        } else if (customView == placeholder) {
+            customView = card;
+            removeCallbacks(attachCustomViewRunnable);
+            attachCustomViewRunnable.run();
+            applyScrollEffects(getCardPosition());
+        } else {
+            setCustomView(card);
+        }
+    }
+
+    /**
+     * Inflates on the background executor, then posts itself to mainHandler to deliver the
+     * card. If inflating off the main thread throws (some views insist on a Looper) we retry on
+     * the main thread, like AsyncLayoutInflater does.
+     */
+    private class CardInflation implements Runnable {
+
+        private final CardFactory factory;
+        private volatile boolean cancelled = false;
+        private boolean finished = false;
+        private View card;
+
+        CardInflation(CardFactory factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled)
+                return;
+            if (finished) {
+                pendingInflation = null;
+                if (card == null)
+                    card = factory.createView(getContext(), viewContainer);
+                onCardInflated(card);
+                return;
+            }
+
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            try {
+                card = factory.createView(getContext(), viewContainer);
+            } catch (RuntimeException e) {
+                card = null;
+            }
+            finished = true;
+            mainHandler.post(this);
+        }
+    }
+
+    /**
+     * Frame stats and counters for scrollAnimator's motions.
+     */
+    private class ScrollAnimatorHooks implements ScrollAnimationController.Card, ScrollAnimationController.Listener {
+
+        private final AnimationFrameStats frameStats = new AnimationFrameStats();
+        private boolean collectingFrameStats = false;
+
+        @Override
+        public int getCardPosition() {
+            return BouncyScrollView.this.getCardPosition();
+        }
+
         @Override
-        public void onAnimationStart(Animator animation) {
+        public void setCardPosition(int position) {
+            BouncyScrollView.this.setCardPosition(position);
         }
 
         @Override
-        public void onAnimationEnd(Animator animation) {
+        public void onAnimationStarted(ScrollAnimationController controller) {
+            if (BouncyTrace.ENABLED) BouncyTrace.beginSection(BouncyTrace.ANIMATION_START);
+            collectingFrameStats = performanceListener != null;
+            if (collectingFrameStats)
+                frameStats.begin(controller.getType(), customView == null ? null : customView.getClass(),
+                        FrameTicker.getInstance().nanoTime());
+            if (BouncyTrace.ENABLED) stats.animationsStarted++;
+            if (BouncyTrace.ENABLED) BouncyTrace.endSection();
         }
 
         @Override
-        public void onAnimationCancel(Animator animation) {
+        public void onAnimationFrame(ScrollAnimationController controller, long frameTimeNanos) {
+            if (collectingFrameStats)
+                frameStats.onFrame(frameTimeNanos, frameIntervalNanos);
         }
 
         @Override
-        public void onAnimationRepeat(Animator animation) {
+        public void onAnimationEnded(ScrollAnimationController controller, boolean cancelled) {
+            if (BouncyTrace.ENABLED && cancelled) stats.animationsCancelled++;
+            if (!collectingFrameStats || performanceListener == null)
+                return;
+            collectingFrameStats = false;
+            frameStats.end(FrameTicker.getInstance().nanoTime(), lastTouchUpNanos, cancelled);
+            lastTouchUpNanos = 0;
+            frameStatsHistory.add(frameStats);
+            performanceListener.onAnimationFrameStats(BouncyScrollView.this, frameStats);
         }
     }
 }
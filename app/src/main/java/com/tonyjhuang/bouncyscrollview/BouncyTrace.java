@@ -0,0 +1,38 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * systrace markers for BouncyScrollView. Gated on BuildConfig.BOUNCY_TRACE, which is a compile
+ * time constant. Guard every call site with if (BouncyTrace.ENABLED), like the counter updates,
+ * so javac drops the call when it's off; a try/finally around a section is left with an empty
+ * handler, which costs nothing unless something throws. Section names must be constants so
+ * tracing never builds strings.
+ */
+final class BouncyTrace {
+
+    static final boolean ENABLED = BuildConfig.BOUNCY_TRACE;
+
+    static final String DISPATCH = "BouncyScrollView#dispatch";
+    static final String SCROLL_ASSIST = "BouncyScrollView#scrollAssist";
+    static final String FLING_ASSIST = "BouncyScrollView#flingAssist";
+    static final String ANIMATION_START = "BouncyScrollView#animationStart";
+    static final String FRAME = "BouncyScrollView#frame";
+
+    private BouncyTrace() {
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    static void beginSection(String name) {
+        if (ENABLED && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2)
+            Trace.beginSection(name);
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    static void endSection() {
+        if (ENABLED && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2)
+            Trace.endSection();
+    }
+}
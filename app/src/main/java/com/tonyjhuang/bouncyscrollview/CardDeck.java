@@ -0,0 +1,206 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * Upcoming items for a BouncyScrollView. While the current card is on screen we bind and
+ * measure the cards for the next few items whenever the main thread goes idle, so dismissing
+ * a card can swap in the next one without doing that work on the dismiss frame.
+ * <p/>
+ * In deck mode the first peekCount of those cards are also shown peeking out from under the
+ * current card. Only those and the prefetched ones are ever bound, the rest of the deck is just
+ * items, so it can be as long as you like.
+ */
+class CardDeck implements MessageQueue.IdleHandler {
+
+    private static final int DEFAULT_PREFETCH_DEPTH = 1;
+
+    private final BouncyScrollView scrollView;
+    private final ArrayList<Object> items = new ArrayList<Object>();
+
+    /**
+     * prefetchedCards[i] is the bound and measured card for items.get(i), or null.
+     */
+    private View[] prefetchedCards = new View[DEFAULT_PREFETCH_DEPTH];
+    private int prefetchDepth = DEFAULT_PREFETCH_DEPTH;
+    private int peekCount = 0;
+    private boolean idleHandlerQueued = false;
+
+    private int prefetchHits = 0;
+    private int prefetchMisses = 0;
+
+    CardDeck(BouncyScrollView scrollView) {
+        this.scrollView = scrollView;
+    }
+
+    void enqueue(Object item) {
+        items.add(item);
+        schedulePrefetch();
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    /**
+     * Drop every queued item, recycling any cards we prefetched for them.
+     */
+    void clear() {
+        items.clear();
+        releasePrefetchedCards(0);
+        updatePeekCards();
+    }
+
+    /**
+     * Show the next item, using its prefetched card if we got to it in time. In deck mode a card
+     * that's peeking is promoted in place unless animate asks for the full swap.
+     *
+     * @return false if the deck is empty.
+     */
+    boolean showNext(boolean animate) {
+        if (items.isEmpty())
+            return false;
+
+        Object item = items.remove(0);
+        View card = prefetchedCards[0];
+        System.arraycopy(prefetchedCards, 1, prefetchedCards, 0, prefetchedCards.length - 1);
+        prefetchedCards[prefetchedCards.length - 1] = null;
+
+        if (card != null) {
+            prefetchHits++;
+            if (!animate && scrollView.isPeeking(card))
+                scrollView.promoteCard(card);
+            else
+                scrollView.setCustomView(card, animate);
+        } else {
+            prefetchMisses++;
+            scrollView.setItem(item, animate);
+        }
+        updatePeekCards();
+        schedulePrefetch();
+        return true;
+    }
+
+    int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    void setPrefetchDepth(int prefetchDepth) {
+        if (prefetchDepth < 0)
+            throw new IllegalArgumentException("prefetchDepth must be >= 0");
+        resize(prefetchDepth, peekCount);
+    }
+
+    int getPeekCount() {
+        return peekCount;
+    }
+
+    /**
+     * How many of the upcoming cards to show under the current one. Peeking cards are always
+     * bound, whatever the prefetch depth.
+     */
+    void setPeekCount(int peekCount) {
+        if (peekCount < 0)
+            throw new IllegalArgumentException("peekCount must be >= 0");
+        resize(prefetchDepth, peekCount);
+        updatePeekCards();
+    }
+
+    private void resize(int prefetchDepth, int peekCount) {
+        int boundCount = Math.max(prefetchDepth, peekCount);
+        if (boundCount < getBoundCount())
+            releasePrefetchedCards(boundCount);
+        View[] cards = new View[Math.max(1, boundCount)];
+        System.arraycopy(prefetchedCards, 0, cards, 0, Math.min(cards.length, prefetchedCards.length));
+        prefetchedCards = cards;
+        this.prefetchDepth = prefetchDepth;
+        this.peekCount = peekCount;
+        schedulePrefetch();
+    }
+
+    /**
+     * How many cards at the front of the deck we keep bound.
+     */
+    private int getBoundCount() {
+        return Math.max(prefetchDepth, peekCount);
+    }
+
+    int getPrefetchHits() {
+        return prefetchHits;
+    }
+
+    int getPrefetchMisses() {
+        return prefetchMisses;
+    }
+
+    /**
+     * Fraction of shown items whose card was ready in time, or 0 if we haven't shown any.
+     */
+    float getPrefetchHitRate() {
+        int total = prefetchHits + prefetchMisses;
+        return total == 0 ? 0f : (float) prefetchHits / total;
+    }
+
+    /**
+     * Prefetch a single card per idle pass so we never hold up a frame for long.
+     */
+    @Override
+    public boolean queueIdle() {
+        int index = nextCardToPrefetch();
+        if (index >= 0) {
+            prefetchedCards[index] = scrollView.prefetchCard(items.get(index));
+            if (index < peekCount)
+                updatePeekCards();
+            index = nextCardToPrefetch();
+        }
+        idleHandlerQueued = index >= 0;
+        return idleHandlerQueued;
+    }
+
+    private int nextCardToPrefetch() {
+        int count = Math.min(getBoundCount(), items.size());
+        for (int i = 0; i < count; i++) {
+            if (prefetchedCards[i] == null)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Stop waiting for the main thread to go idle. The message queue outlives us, so this has to
+     * happen when the view is detached. Cards prefetched so far are kept.
+     */
+    void cancelPrefetch() {
+        if (!idleHandlerQueued)
+            return;
+        idleHandlerQueued = false;
+        Looper.myQueue().removeIdleHandler(this);
+    }
+
+    /**
+     * Pick prefetching back up where cancelPrefetch() left it.
+     */
+    void schedulePrefetch() {
+        if (idleHandlerQueued || nextCardToPrefetch() < 0)
+            return;
+        idleHandlerQueued = true;
+        Looper.myQueue().addIdleHandler(this);
+    }
+
+    private void updatePeekCards() {
+        scrollView.setPeekCards(prefetchedCards, Math.min(peekCount, items.size()));
+    }
+
+    private void releasePrefetchedCards(int from) {
+        for (int i = from; i < prefetchedCards.length; i++) {
+            if (prefetchedCards[i] != null) {
+                scrollView.recycleCard(prefetchedCards[i]);
+                prefetchedCards[i] = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import java.util.ArrayList;
+
+/**
+ * Holds BouncyScrollView's card. Knows how to swap one card for another without asking the
+ * whole hierarchy for a new layout pass when the new card turns out to be the same size.
+ * <p/>
+ * In deck mode it also holds the cards peeking out from under the current one. Peeks are drawn
+ * behind the card, each a little lower and smaller than the one in front of it, and only ever
+ * moved with translation and scale so the stack never costs a layout pass.
+ */
+class CardFrame extends FrameLayout {
+
+    private View card;
+
+    /**
+     * peekCards.get(0) sits right behind card.
+     */
+    private final ArrayList<View> peekCards = new ArrayList<View>();
+    private int stackOffset;
+    private float stackScale;
+
+    private int lastWidthMeasureSpec;
+    private int lastHeightMeasureSpec;
+    private boolean measured = false;
+
+    CardFrame(Context context) {
+        super(context);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        lastWidthMeasureSpec = widthMeasureSpec;
+        lastHeightMeasureSpec = heightMeasureSpec;
+        measured = true;
+    }
+
+    /**
+     * Replace our current card with card. If card measures out to the same size as the card it
+     * replaces, it's laid out in the old card's spot and nothing above us re-measures.
+     *
+     * @return the card that was removed, if any.
+     */
+    View swapCard(View card) {
+        View oldCard = this.card;
+        if (oldCard == card)
+            return null;
+
+        if (oldCard != null)
+            removeViewInLayout(oldCard);
+        this.card = card;
+        if (card == null) {
+            requestLayout();
+            return oldCard;
+        }
+
+        int peek = peekCards.indexOf(card);
+        if (peek >= 0) {
+            // Promoted from the stack. It's already attached, measured and laid out, it only has
+            // to move in front of the other peeks.
+            peekCards.remove(peek);
+            resetStackTransform(card);
+            detachViewFromParent(card);
+            attachViewToParent(card, -1, card.getLayoutParams());
+        } else {
+            addViewInLayout(card, -1, getCardLayoutParams(card), true);
+        }
+
+        if (oldCard == null || !measured) {
+            requestLayout();
+            return oldCard;
+        }
+
+        measureChildWithMargins(card, lastWidthMeasureSpec, 0, lastHeightMeasureSpec, 0);
+        if (card.getMeasuredWidth() == oldCard.getMeasuredWidth()
+                && card.getMeasuredHeight() == oldCard.getMeasuredHeight()) {
+            card.layout(oldCard.getLeft(), oldCard.getTop(), oldCard.getRight(), oldCard.getBottom());
+            invalidate();
+        } else {
+            requestLayout();
+        }
+        return oldCard;
+    }
+
+    /**
+     * Measure a card that isn't attached yet the same way we'd measure it as our child, so
+     * swapping it in later hits the measure cache.
+     */
+    void premeasure(View card) {
+        if (!measured)
+            return;
+        card.setLayoutParams(getCardLayoutParams(card));
+        measureChildWithMargins(card, lastWidthMeasureSpec, 0, lastHeightMeasureSpec, 0);
+    }
+
+    void setStackStyle(int stackOffset, float stackScale) {
+        this.stackOffset = stackOffset;
+        this.stackScale = stackScale;
+    }
+
+    /**
+     * Show the first count of cards behind our card, stopping at the first null. Cards we were
+     * showing that aren't in cards are removed, the ones that are stay attached.
+     */
+    void setPeekCards(View[] cards, int count) {
+        int size = 0;
+        while (size < count && cards[size] != null && cards[size] != card)
+            size++;
+
+        // Cards only ever move towards the front of the deck, so anything we keep is a prefix of
+        // the new stack. If it isn't, start over.
+        for (int i = peekCards.size() - 1; i >= 0; i--) {
+            if (i >= size || peekCards.get(i) != cards[i]) {
+                for (int j = peekCards.size() - 1; j >= 0; j--)
+                    removePeekCard(j);
+                break;
+            }
+        }
+        while (peekCards.size() > size)
+            removePeekCard(peekCards.size() - 1);
+
+        boolean needsLayout = false;
+        for (int i = peekCards.size(); i < size; i++) {
+            View peek = cards[i];
+            peekCards.add(peek);
+            // Deeper cards go further back.
+            addViewInLayout(peek, 0, getCardLayoutParams(peek), true);
+            needsLayout |= !layoutInPlace(peek);
+        }
+        if (needsLayout)
+            requestLayout();
+        else
+            invalidate();
+    }
+
+    /**
+     * Stop showing card in the stack if it's there.
+     */
+    void removePeekCard(View card) {
+        int index = peekCards.indexOf(card);
+        if (index >= 0)
+            removePeekCard(index);
+    }
+
+    private void removePeekCard(int index) {
+        View peek = peekCards.remove(index);
+        removeViewInLayout(peek);
+        resetStackTransform(peek);
+    }
+
+    int getPeekCount() {
+        return peekCards.size();
+    }
+
+    /**
+     * Position the peeks for the current card's position. displacement is how far the card has
+     * been moved up from its starting position, the stack stays put so we undo it. As the card
+     * leaves, promotion goes from 0 to 1 and every peek moves up a spot, so by the time the card
+     * is gone the next one is exactly where the card started.
+     */
+    void positionStack(float promotion, int displacement) {
+        for (int i = 0, size = peekCards.size(); i < size; i++) {
+            View peek = peekCards.get(i);
+            float depth = i + 1 - promotion;
+            float scale = Math.max(0, 1 - depth * stackScale);
+            peek.setPivotX(peek.getWidth() / 2f);
+            peek.setPivotY(peek.getHeight());
+            peek.setScaleX(scale);
+            peek.setScaleY(scale);
+            peek.setTranslationY(displacement + depth * stackOffset);
+        }
+    }
+
+    /**
+     * Lay a freshly added child out in our card's spot without a layout pass if it measures the
+     * same.
+     *
+     * @return false if it needs a real layout pass.
+     */
+    private boolean layoutInPlace(View child) {
+        if (!measured || card == null || card.getWidth() == 0)
+            return false;
+        if (child.isLayoutRequested() || child.getMeasuredWidth() == 0)
+            measureChildWithMargins(child, lastWidthMeasureSpec, 0, lastHeightMeasureSpec, 0);
+        if (child.getMeasuredWidth() != card.getWidth() || child.getMeasuredHeight() != card.getHeight())
+            return false;
+        child.layout(card.getLeft(), card.getTop(), card.getRight(), card.getBottom());
+        return true;
+    }
+
+    private static void resetStackTransform(View view) {
+        view.setScaleX(1);
+        view.setScaleY(1);
+        view.setTranslationY(0);
+    }
+
+    private ViewGroup.LayoutParams getCardLayoutParams(View card) {
+        ViewGroup.LayoutParams layoutParams = card.getLayoutParams();
+        if (layoutParams == null)
+            return generateDefaultLayoutParams();
+        if (!checkLayoutParams(layoutParams))
+            return generateLayoutParams(layoutParams);
+        return layoutParams;
+    }
+}
@@ -0,0 +1,46 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.util.SparseArray;
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * Detached card views waiting to be bound to a new item, bucketed by view type. Once every type
+ * has been seen, getting and putting views doesn't allocate.
+ */
+class CardViewPool {
+
+    private static final int DEFAULT_MAX_PER_TYPE = 4;
+
+    private final SparseArray<ArrayList<View>> scrap = new SparseArray<ArrayList<View>>();
+    private int maxPerType = DEFAULT_MAX_PER_TYPE;
+
+    /**
+     * @return a recycled view of viewType, or null if we don't have one.
+     */
+    View acquire(int viewType) {
+        ArrayList<View> views = scrap.get(viewType);
+        if (views == null || views.isEmpty())
+            return null;
+        return views.remove(views.size() - 1);
+    }
+
+    void release(int viewType, View view) {
+        ArrayList<View> views = scrap.get(viewType);
+        if (views == null) {
+            views = new ArrayList<View>(maxPerType);
+            scrap.put(viewType, views);
+        }
+        if (views.size() < maxPerType && !views.contains(view))
+            views.add(view);
+    }
+
+    void setMaxPerType(int maxPerType) {
+        this.maxPerType = maxPerType;
+    }
+
+    void clear() {
+        scrap.clear();
+    }
+}
@@ -0,0 +1,50 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.view.View;
+
+/**
+ * Fades the card out as it sinks below the bottom scroll assist threshold. Only touches the
+ * card's alpha when the visible (8 bit) alpha actually changes.
+ * <p/>
+ * The fade can be multiplied by a dim (eg FadingBouncyScrollView dims the card while the user
+ * touches outside of it) so there's a single place that decides the card's alpha.
+ */
+public class FadeScrollEffect implements ScrollEffect {
+
+    private final FadeTable fadeTable = new FadeTable();
+    private View lastCard;
+    private int lastLevel = -1;
+    private float dim = 1f;
+
+    @Override
+    public void apply(BouncyScrollView scrollView, View card, int position) {
+        fadeTable.setThreshold(scrollView.getBottomScrollAssistThreshold());
+        int level = fadeTable.getLevel(position);
+        if (card == lastCard && level == lastLevel)
+            return;
+        lastCard = card;
+        lastLevel = level;
+        card.setAlpha(getAlpha());
+    }
+
+    /**
+     * The alpha we last gave the card.
+     */
+    public float getAlpha() {
+        return (lastLevel < 0 ? 1f : FadeTable.toAlpha(lastLevel)) * dim;
+    }
+
+    public float getDim() {
+        return dim;
+    }
+
+    /**
+     * Multiply the scroll fade by dim, between 0 and 1. Applied to the card right away.
+     */
+    public void setDim(float dim) {
+        if (this.dim == dim)
+            return;
+        this.dim = dim;
+        if (lastCard != null) lastCard.setAlpha(getAlpha());
+    }
+}
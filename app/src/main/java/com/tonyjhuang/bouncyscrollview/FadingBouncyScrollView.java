@@ -1,11 +1,13 @@
 package com.tonyjhuang.bouncyscrollview;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
 import android.content.Context;
 import android.support.annotation.NonNull;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
-import android.view.animation.AlphaAnimation;
 
 /**
  * Created by tony on 12/30/14.
@@ -14,40 +16,38 @@ public class FadingBouncyScrollView extends BouncyScrollView {
     private static final float FADE_ALPHA = 0.25f;
     private static final int FADE_ANIM_DURATION = 200;
 
-    private View customView;
-
-    private float previousAlpha = 1f;
+    /**
+     * The only thing that sets our card's alpha: the scroll fade multiplied by the touch dim.
+     */
+    private final FadeScrollEffect fadeScrollEffect = new FadeScrollEffect();
+    private final ValueAnimator dimAnimator = ValueAnimator.ofFloat(0f, 1f);
+    private float dimFrom = 1f;
+    private float dimTo = 1f;
 
     public FadingBouncyScrollView(Context context) {
-        super(context);
+        this(context, null);
     }
 
     public FadingBouncyScrollView(Context context, AttributeSet attrs) {
-        super(context, attrs);
+        this(context, attrs, 0);
     }
 
     public FadingBouncyScrollView(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
-    }
+        /**
+         * Fade card out if it is below the start position
+         */
+        addScrollEffect(fadeScrollEffect);
 
-    @Override
-    public void setCustomView(View customView, boolean animation, int duration) {
-        super.setCustomView(customView);
-        this.customView = customView;
+        DimAnimatorListener dimAnimatorListener = new DimAnimatorListener();
+        dimAnimator.setDuration(FADE_ANIM_DURATION);
+        dimAnimator.addListener(dimAnimatorListener);
+        dimAnimator.addUpdateListener(dimAnimatorListener);
     }
 
     @Override
-    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
-        super.onScrollChanged(l, t, oldl, oldt);
-        if (customView == null) return;
-        /**
-         * Fade card out if it is below the start position
-         */
-        if (t < getBottomScrollAssistThreshold()) {
-            customView.setAlpha((float) Math.pow(((float) t) / getBottomScrollAssistThreshold(), 1.6f));
-        } else {
-            customView.setAlpha(1.0f);
-        }
+    public void setCustomView(View customView, boolean animation, int duration) {
+        super.setCustomView(customView, false, duration);
     }
 
     @Override
@@ -71,7 +71,7 @@ public class FadingBouncyScrollView extends BouncyScrollView {
 
     @Override
     public boolean onTouchEvent(@NonNull MotionEvent ev) {
-        if (((!isTouchingView(ev) && !draggingInside) || draggingOutside))
+        if (((!isTouchingView(ev) && !isDraggingInside()) || isDraggingOutside()))
             switch (ev.getAction()) {
                 case MotionEvent.ACTION_UP:
                 case MotionEvent.ACTION_CANCEL:
@@ -80,25 +80,63 @@ public class FadingBouncyScrollView extends BouncyScrollView {
         return super.onTouchEvent(ev);
     }
 
-    private void fadeView(boolean fade) {
-        if (customView == null) return;
-        customView.clearAnimation();
+    /**
+     * A running ValueAnimator is referenced from the animation thread's handler, so finish the
+     * dim now rather than leaving it holding on to us.
+     */
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (dimAnimator.isRunning())
+            dimAnimator.end();
+    }
 
-        if (fade) previousAlpha = customView.getAlpha();
-        float startAlpha = fade ? previousAlpha : FADE_ALPHA;
-        float endAlpha = fade ? FADE_ALPHA : previousAlpha;
+    private void fadeView(boolean fade) {
+        if (getCustomView() == null) return;
+        float target = fade ? FADE_ALPHA : 1f;
+        if (dimAnimator.isRunning()) {
+            dimAnimator.cancel();
+        } else if (fadeScrollEffect.getDim() == target) {
+            return;
+        }
+        dimFrom = fadeScrollEffect.getDim();
+        dimTo = target;
+        dimAnimator.start();
+    }
 
-        // If returning from a fade and our new alpha is less than the alpha that we faded to,
-        // don't do anything.
-        if (!fade && endAlpha > previousAlpha) return;
+    /**
+     * Animates the touch dim on top of the scroll fade. The card is kept on a hardware layer
+     * for the duration so each frame is just a layer alpha change.
+     */
+    private class DimAnimatorListener extends AnimatorListenerAdapter
+            implements ValueAnimator.AnimatorUpdateListener {
+
+        private View layeredView;
+        private int previousLayerType;
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+            layeredView = getCustomView();
+            if (layeredView == null) return;
+            // Make sure the fade knows which card it's dimming even if it hasn't moved yet.
+            fadeScrollEffect.apply(FadingBouncyScrollView.this, layeredView, getCardPosition());
+            previousLayerType = layeredView.getLayerType();
+            if (previousLayerType != LAYER_TYPE_HARDWARE)
+                layeredView.setLayerType(LAYER_TYPE_HARDWARE, null);
+        }
 
-        customView.startAnimation(createAlphaAnimation(startAlpha, endAlpha, FADE_ANIM_DURATION));
-    }
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            fadeScrollEffect.setDim(dimFrom + (dimTo - dimFrom) * animation.getAnimatedFraction());
+        }
 
-    private AlphaAnimation createAlphaAnimation(float startAlpha, float endAlpha, int duration) {
-        AlphaAnimation anim = new AlphaAnimation(startAlpha, endAlpha);
-        anim.setDuration(duration);
-        anim.setFillAfter(true);
-        return anim;
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            // Also called after onAnimationCancel.
+            if (layeredView == null) return;
+            if (previousLayerType != LAYER_TYPE_HARDWARE)
+                layeredView.setLayerType(previousLayerType, null);
+            layeredView = null;
+        }
     }
 }
@@ -0,0 +1,110 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * One frame callback for every BouncyScrollView in the process. Views register while they're
+ * animating or waiting for a scroll to settle and unregister as soon as they're done, so a screen
+ * full of idle views schedules nothing. Main thread only.
+ * <p/>
+ * All of our animation timing comes from here too, so tests can swap in a ManualFrameScheduler
+ * with setScheduler() and step frames themselves.
+ */
+final class FrameTicker {
+
+    /**
+     * Used before Choreographer (API 16).
+     */
+    private static final long FALLBACK_FRAME_DELAY = 16;
+
+    private static FrameLoop instance;
+
+    private FrameTicker() {
+    }
+
+    static FrameLoop getInstance() {
+        if (instance == null)
+            instance = new FrameLoop(createDisplayScheduler());
+        return instance;
+    }
+
+    /**
+     * Drive every BouncyScrollView from scheduler instead of the display. Pass null to go back to
+     * the display's frames.
+     */
+    static void setScheduler(FrameLoop.Scheduler scheduler) {
+        getInstance().setScheduler(scheduler == null ? createDisplayScheduler() : scheduler);
+    }
+
+    private static FrameLoop.Scheduler createDisplayScheduler() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN
+                ? new ChoreographerScheduler()
+                : new HandlerScheduler();
+    }
+
+    private static void doFrame(FrameLoop loop, long frameTimeNanos) {
+        if (BouncyTrace.ENABLED) BouncyTrace.beginSection(BouncyTrace.FRAME);
+        try {
+            loop.doFrame(frameTimeNanos);
+        } finally {
+            if (BouncyTrace.ENABLED) BouncyTrace.endSection();
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class ChoreographerScheduler implements FrameLoop.Scheduler, Choreographer.FrameCallback {
+
+        // Looked up on first use, Choreographer.getInstance() needs a Looper on the calling thread.
+        private Choreographer choreographer;
+        private FrameLoop loop;
+
+        @Override
+        public long nanoTime() {
+            // Choreographer's frame times are in the System.nanoTime() time base.
+            return System.nanoTime();
+        }
+
+        @Override
+        public void scheduleFrame(FrameLoop loop) {
+            this.loop = loop;
+            if (choreographer == null)
+                choreographer = Choreographer.getInstance();
+            choreographer.postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            FrameTicker.doFrame(loop, frameTimeNanos);
+        }
+    }
+
+    private static class HandlerScheduler implements FrameLoop.Scheduler, Runnable {
+
+        private final Handler handler = new Handler(Looper.getMainLooper());
+        private FrameLoop loop;
+        private long lastFrameMillis = 0;
+
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void scheduleFrame(FrameLoop loop) {
+            this.loop = loop;
+            long delay = FALLBACK_FRAME_DELAY - (System.nanoTime() / 1000000 - lastFrameMillis);
+            handler.postDelayed(this, Math.max(0, delay));
+        }
+
+        @Override
+        public void run() {
+            long now = System.nanoTime();
+            lastFrameMillis = now / 1000000;
+            FrameTicker.doFrame(loop, now);
+        }
+    }
+}
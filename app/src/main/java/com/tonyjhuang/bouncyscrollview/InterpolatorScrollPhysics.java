@@ -0,0 +1,69 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.view.animation.Interpolator;
+
+/**
+ * Fixed duration motion that follows an Interpolator, ie what the old ObjectAnimators did. Any
+ * starting velocity is ignored.
+ */
+public class InterpolatorScrollPhysics implements ScrollPhysics {
+
+    /**
+     * Step used to estimate the velocity from the interpolator curve.
+     */
+    private static final float VELOCITY_EPSILON = 0.001f;
+
+    private final Interpolator interpolator;
+    private final int duration;
+
+    private float start;
+    private float end;
+    private float position;
+    private float velocity;
+
+    public InterpolatorScrollPhysics(Interpolator interpolator, int duration) {
+        this.interpolator = interpolator;
+        this.duration = duration;
+    }
+
+    @Override
+    public void start(float start, float end, float velocity) {
+        this.start = start;
+        this.end = end;
+        this.position = start;
+        this.velocity = 0;
+    }
+
+    @Override
+    public boolean update(long elapsedMillis) {
+        if (duration <= 0 || elapsedMillis >= duration) {
+            position = end;
+            velocity = 0;
+            return false;
+        }
+        float fraction = (float) elapsedMillis / duration;
+        float value = interpolator.getInterpolation(fraction);
+        float next = interpolator.getInterpolation(Math.min(1f, fraction + VELOCITY_EPSILON));
+        position = start + (end - start) * value;
+        velocity = (end - start) * (next - value) / (VELOCITY_EPSILON * duration) * 1000;
+        return true;
+    }
+
+    @Override
+    public float getPosition() {
+        return position;
+    }
+
+    @Override
+    public float getVelocity() {
+        return velocity;
+    }
+
+    public Interpolator getInterpolator() {
+        return interpolator;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+}
@@ -0,0 +1,64 @@
+package com.tonyjhuang.bouncyscrollview;
+
+/**
+ * Copy-on-write listener array. Adding or removing copies the array, dispatching just walks
+ * whatever array was current when it started, so listeners can add or remove listeners from
+ * their callbacks and dispatch never allocates. Main thread only.
+ */
+final class ListenerList<T> {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private Object[] listeners = EMPTY;
+
+    void add(T listener) {
+        if (listener == null || indexOf(listener) >= 0)
+            return;
+        Object[] copy = new Object[listeners.length + 1];
+        System.arraycopy(listeners, 0, copy, 0, listeners.length);
+        copy[listeners.length] = listener;
+        listeners = copy;
+    }
+
+    void remove(T listener) {
+        int index = indexOf(listener);
+        if (index < 0)
+            return;
+        if (listeners.length == 1) {
+            listeners = EMPTY;
+            return;
+        }
+        Object[] copy = new Object[listeners.length - 1];
+        System.arraycopy(listeners, 0, copy, 0, index);
+        System.arraycopy(listeners, index + 1, copy, index, copy.length - index);
+        listeners = copy;
+    }
+
+    boolean contains(T listener) {
+        return indexOf(listener) >= 0;
+    }
+
+    boolean isEmpty() {
+        return listeners.length == 0;
+    }
+
+    /**
+     * The current listeners. Never modified once returned, iterate it with get().
+     */
+    Object[] snapshot() {
+        return listeners;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T get(Object[] snapshot, int index) {
+        return (T) snapshot[index];
+    }
+
+    private int indexOf(Object listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener)
+                return i;
+        }
+        return -1;
+    }
+}
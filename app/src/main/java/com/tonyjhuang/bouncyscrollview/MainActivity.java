@@ -5,7 +5,7 @@ import android.os.Handler;
 import android.support.v7.app.ActionBarActivity;
 import android.util.Log;
 import android.view.View;
-import android.view.ViewTreeObserver;
+import android.view.ViewGroup;
 import android.widget.ProgressBar;
 
 
@@ -13,33 +13,41 @@ public class MainActivity extends ActionBarActivity implements BouncyScrollView.
 
     private final String TAG = getClass().getSimpleName();
 
+    private static final int TYPE_LOADING = 0;
+    private static final int TYPE_CARD = 1;
+
     BouncyScrollView bouncyScrollView;
     boolean flip = true;
-    ProgressBar progressBar;
-    View customView;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        progressBar = new ProgressBar(this);
-        customView = getLayoutInflater().inflate(R.layout.test_view, null);
-
         bouncyScrollView = (BouncyScrollView) findViewById(R.id.scrollview);
         bouncyScrollView.setEventListener(this);
-        setNewView(false);
+        bouncyScrollView.setCardAdapter(new BouncyScrollView.CardAdapter<Boolean>() {
+            @Override
+            public int getViewType(Boolean loading) {
+                return loading ? TYPE_LOADING : TYPE_CARD;
+            }
 
-        bouncyScrollView.getViewTreeObserver().addOnGlobalLayoutListener(new ViewTreeObserver.OnGlobalLayoutListener() {
             @Override
-            public void onGlobalLayout() {
-                bouncyScrollView.animateToStartingPosition();
+            public View createView(ViewGroup parent, int viewType) {
+                if (viewType == TYPE_LOADING)
+                    return new ProgressBar(MainActivity.this);
+                return getLayoutInflater().inflate(R.layout.test_view, parent, false);
+            }
+
+            @Override
+            public void bind(View view, Boolean loading) {
             }
         });
+        setNewView(false);
     }
 
     private void setNewView(boolean animate) {
-        bouncyScrollView.setCustomView(flip ? progressBar : customView, animate);
+        bouncyScrollView.setItem(flip, animate);
         bouncyScrollView.setScrollable(!flip);
         if(flip)
             new Handler().postDelayed(new Runnable() {
@@ -0,0 +1,17 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import android.view.View;
+
+/**
+ * Something that changes how the card looks as it moves, eg fading, scaling or parallax.
+ * BouncyScrollView runs every effect it has in a single pass each time the card moves, so
+ * apply() is called every frame and shouldn't allocate.
+ */
+public interface ScrollEffect {
+
+    /**
+     * @param card     the current custom view, never null.
+     * @param position the card's position, see BouncyScrollView#getCardPosition().
+     */
+    public void apply(BouncyScrollView scrollView, View card, int position);
+}
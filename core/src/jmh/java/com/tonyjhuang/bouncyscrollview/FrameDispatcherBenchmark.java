@@ -0,0 +1,82 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-frame cost of the shared frame ticker as more BouncyScrollViews register with it. Each
+ * client does about what ScrollAnimationController does on a frame: step a position towards a
+ * target. Registered is every instance animating. Idle views don't register at all, so however
+ * many there are, idle is the cost of the one that's animating and has no instances param.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FrameDispatcherBenchmark {
+
+    private static final long FRAME_NANOS = 16666667L;
+
+    @State(Scope.Thread)
+    public static class AllAnimating extends Frames {
+
+        @Param({"1", "4", "16", "64"})
+        public int instances;
+
+        @Setup
+        public void setUp() {
+            for (int i = 0; i < instances; i++) {
+                dispatcher.add(new StepClient());
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class OneAnimating extends Frames {
+
+        @Setup
+        public void setUp() {
+            dispatcher.add(new StepClient());
+        }
+    }
+
+    @Benchmark
+    public boolean registered(AllAnimating state) {
+        return state.nextFrame();
+    }
+
+    @Benchmark
+    public boolean idle(OneAnimating state) {
+        return state.nextFrame();
+    }
+
+    public abstract static class Frames {
+
+        final FrameDispatcher dispatcher = new FrameDispatcher();
+        private long frameTimeNanos = 0;
+
+        boolean nextFrame() {
+            frameTimeNanos += FRAME_NANOS;
+            return dispatcher.dispatch(frameTimeNanos);
+        }
+    }
+
+    private static class StepClient implements FrameDispatcher.Client {
+
+        private float position = 0;
+        private float target = 1000;
+
+        @Override
+        public void onFrame(long frameTimeNanos) {
+            position += (target - position) * 0.2f;
+            if (Math.abs(target - position) < 0.5f)
+                target = target == 0 ? 1000 : 0;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a synthetic stream of gestures through the same logic BouncyScrollView runs for every
+ * MotionEvent and scroll frame. Timings are per event; run with the gc profiler (the default in
+ * core/build.gradle) and read gc.alloc.rate.norm for bytes allocated per event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GestureBenchmark {
+
+    private static final int HEIGHT = 1920;
+    private static final int CARD_HEIGHT = 600;
+    private static final float STARTING_POSITION = 0.66f;
+    private static final float SCROLL_ASSIST_THRESHOLD = 0.75f;
+
+    private static final int GESTURES = 64;
+    private static final int MOVES_PER_GESTURE = 30;
+    private static final int EVENTS = GESTURES * (MOVES_PER_GESTURE + 2);
+
+    private final int[] actions = new int[EVENTS];
+    private final float[] ys = new float[EVENTS];
+    private final TouchState touchState = new TouchState();
+
+    @Setup
+    public void setUp() {
+        int start = ScrollMath.getAbsoluteStartingPosition(STARTING_POSITION, HEIGHT);
+        int event = 0;
+        for (int gesture = 0; gesture < GESTURES; gesture++) {
+            // Alternate between grabbing the card and grabbing empty space, dragging up and down.
+            float downY = gesture % 2 == 0 ? HEIGHT - start + CARD_HEIGHT / 2 : 50;
+            float dy = gesture % 4 < 2 ? -20 : 20;
+            actions[event] = TouchState.ACTION_DOWN;
+            ys[event++] = downY;
+            for (int move = 1; move <= MOVES_PER_GESTURE; move++) {
+                actions[event] = TouchState.ACTION_MOVE;
+                ys[event++] = downY + move * dy;
+            }
+            actions[event] = TouchState.ACTION_UP;
+            ys[event++] = downY + MOVES_PER_GESTURE * dy;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void gestureStream(Blackhole blackhole) {
+        int position = ScrollMath.getAbsoluteStartingPosition(STARTING_POSITION, HEIGHT);
+        int threshold = ScrollMath.getBottomScrollAssistThreshold(CARD_HEIGHT, SCROLL_ASSIST_THRESHOLD);
+        float lastY = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            int action = actions[i];
+            float y = ys[i];
+            int cardTop = HEIGHT - position;
+            boolean touchingCard = y > cardTop && y < cardTop + CARD_HEIGHT;
+
+            touchState.onInterceptTouchEvent(action, touchingCard);
+            if (touchState.onTouchEvent(action, touchingCard) && action == TouchState.ACTION_MOVE) {
+                position = Math.max(0, Math.min(HEIGHT + CARD_HEIGHT, position + (int) (lastY - y)));
+                blackhole.consume(FadeCurve.getAlpha(position, threshold));
+            }
+            if (action == TouchState.ACTION_UP) {
+                blackhole.consume(ScrollMath.getScrollAssistDirection(
+                        position, HEIGHT, CARD_HEIGHT, SCROLL_ASSIST_THRESHOLD));
+            }
+            lastY = y;
+        }
+        blackhole.consume(position);
+    }
+
+    @Benchmark
+    public int scrollAssistThresholds() {
+        return ScrollMath.getScrollAssistDirection(HEIGHT / 3, HEIGHT, CARD_HEIGHT, SCROLL_ASSIST_THRESHOLD);
+    }
+
+    @Benchmark
+    public float fadeCurve() {
+        return FadeCurve.getAlpha(CARD_HEIGHT / 4,
+                ScrollMath.getBottomScrollAssistThreshold(CARD_HEIGHT, SCROLL_ASSIST_THRESHOLD));
+    }
+}
@@ -0,0 +1,80 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a drag sampled at touchRate Hz against a 60Hz display through GestureSimulator, with
+ * and without resampling touches to the frame time. The drag goes through CardDragController,
+ * the same code BouncyScrollView drags its card with. The timing is the cost of a whole replay;
+ * the number that matters is the meanDragLag counter (px between the finger and the card).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TouchLatencyBenchmark {
+
+    private static final int HEIGHT = 1920;
+    private static final int CARD_HEIGHT = 600;
+
+    @Param({"60", "120", "240"})
+    public int touchRate;
+
+    @Param({"false", "true"})
+    public boolean resampling;
+
+    private GestureSimulator simulator;
+    private GestureSimulator.Gesture gesture;
+
+    /**
+     * Reported next to the timings. Reset every iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Lag {
+
+        public double meanDragLag;
+        private double lagSum;
+        private int replays;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            meanDragLag = 0;
+            lagSum = 0;
+            replays = 0;
+        }
+
+        void add(float dragLag) {
+            lagSum += dragLag;
+            replays++;
+            meanDragLag = lagSum / replays;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        simulator = new GestureSimulator(HEIGHT, CARD_HEIGHT, 0.66f, 0.75f, 3f);
+        simulator.setTouchResampling(resampling);
+        float cardCenter = HEIGHT - simulator.getStartingPosition() + CARD_HEIGHT / 2;
+        // Slow enough that scroll assist sends the card back and it can be replayed forever.
+        gesture = GestureSimulator.Gesture.drag(cardCenter, cardCenter - 400, 500, 1000 / touchRate);
+    }
+
+    @Benchmark
+    public int drag(Lag lag) {
+        simulator.reset();
+        GestureSimulator.Result result = simulator.replay(gesture);
+        lag.add(result.getMeanDragLag());
+        return result.getPosition();
+    }
+}
@@ -0,0 +1,121 @@
+package com.tonyjhuang.bouncyscrollview;
+
+/**
+ * Frame timing for one BouncyScrollView animation. Instances are reused, so copy anything you
+ * want to keep past the callback you were handed one in.
+ */
+public class AnimationFrameStats {
+
+    public static final int TYPE_ENTRY = 0;
+    public static final int TYPE_SCROLL_ASSIST = 1;
+    public static final int TYPE_SWAP = 2;
+    public static final int TYPE_FLING = 3;
+
+    private int type;
+    private Object tag;
+    private long startNanos;
+    private long lastFrameNanos;
+    private int frameCount;
+    private int droppedFrames;
+    private long longestFrameNanos;
+    private long durationNanos;
+    private long touchUpToSettleNanos;
+    private boolean cancelled;
+
+    /**
+     * Start collecting for a new animation.
+     *
+     * @param tag anything identifying what was animated, eg the card's class.
+     */
+    public void begin(int type, Object tag, long startNanos) {
+        this.type = type;
+        this.tag = tag;
+        this.startNanos = startNanos;
+        lastFrameNanos = startNanos;
+        frameCount = 0;
+        droppedFrames = 0;
+        longestFrameNanos = 0;
+        durationNanos = 0;
+        touchUpToSettleNanos = -1;
+        cancelled = false;
+    }
+
+    /**
+     * Record a frame. Anything longer than frameIntervalNanos counts the frames it skipped as
+     * dropped.
+     */
+    public void onFrame(long frameNanos, long frameIntervalNanos) {
+        long frameTime = frameNanos - lastFrameNanos;
+        lastFrameNanos = frameNanos;
+        frameCount++;
+        if (frameTime > longestFrameNanos)
+            longestFrameNanos = frameTime;
+        if (frameIntervalNanos > 0) {
+            // Round to the nearest vsync so normal jitter doesn't count as a dropped frame.
+            long intervals = (frameTime + frameIntervalNanos / 2) / frameIntervalNanos;
+            if (intervals > 1)
+                droppedFrames += intervals - 1;
+        }
+    }
+
+    /**
+     * @param touchUpNanos when the user last lifted their finger, or <= 0 if this animation
+     *                     wasn't started by a gesture.
+     */
+    public void end(long endNanos, long touchUpNanos, boolean cancelled) {
+        durationNanos = endNanos - startNanos;
+        touchUpToSettleNanos = touchUpNanos > 0 ? endNanos - touchUpNanos : -1;
+        this.cancelled = cancelled;
+    }
+
+    public void copyFrom(AnimationFrameStats other) {
+        type = other.type;
+        tag = other.tag;
+        startNanos = other.startNanos;
+        lastFrameNanos = other.lastFrameNanos;
+        frameCount = other.frameCount;
+        droppedFrames = other.droppedFrames;
+        longestFrameNanos = other.longestFrameNanos;
+        durationNanos = other.durationNanos;
+        touchUpToSettleNanos = other.touchUpToSettleNanos;
+        cancelled = other.cancelled;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public Object getTag() {
+        return tag;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    public long getLongestFrameNanos() {
+        return longestFrameNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Time from the user lifting their finger to this animation coming to rest, or -1.
+     */
+    public long getTouchUpToSettleNanos() {
+        return touchUpToSettleNanos;
+    }
+
+    /**
+     * Was this animation stopped or retargeted before it finished?
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,105 @@
+package com.tonyjhuang.bouncyscrollview;
+
+/**
+ * Moves a card with the finger, once per frame to where a TouchResampler says the finger was.
+ */
+public class CardDragController implements FrameDispatcher.Client {
+
+    private final FrameLoop frameLoop;
+    private final ScrollAnimationController.Card card;
+    private final TouchResampler touchResampler = new TouchResampler();
+    private boolean resampling = true;
+    private boolean dragging = false;
+    private float lastY;
+
+    public CardDragController(FrameLoop frameLoop, ScrollAnimationController.Card card) {
+        this.frameLoop = frameLoop;
+        this.card = card;
+    }
+
+    /**
+     * A new gesture is starting, forget the last one's samples.
+     */
+    public void reset() {
+        touchResampler.reset();
+    }
+
+    /**
+     * Samples must be added in time order.
+     */
+    public void addSample(long timeNanos, float y) {
+        touchResampler.addSample(timeNanos, y);
+    }
+
+    /**
+     * Start moving the card with the finger, which is at y.
+     */
+    public void start(float y) {
+        dragging = true;
+        lastY = y;
+    }
+
+    /**
+     * A move's samples have been added. The card follows on the next frame, or right away if
+     * we're not resampling.
+     */
+    public void onMove() {
+        if (!dragging)
+            return;
+        if (resampling)
+            frameLoop.register(this);
+        else
+            dragTo(touchResampler.getNewestY());
+    }
+
+    /**
+     * Put the card exactly under where the finger lifted before anything animates it.
+     */
+    public void end(float y) {
+        frameLoop.unregister(this);
+        if (dragging)
+            dragTo(y);
+        dragging = false;
+    }
+
+    /**
+     * Stop dragging and leave the card where it is.
+     */
+    public void cancel() {
+        frameLoop.unregister(this);
+        dragging = false;
+    }
+
+    public boolean isDragging() {
+        return dragging;
+    }
+
+    public boolean isResampling() {
+        return resampling;
+    }
+
+    /**
+     * Turn resampling off to move the card on every event instead, which is what ScrollView does.
+     * On by default.
+     */
+    public void setResampling(boolean resampling) {
+        this.resampling = resampling;
+    }
+
+    /**
+     * One card move per frame while dragging.
+     */
+    @Override
+    public void onFrame(long frameTimeNanos) {
+        frameLoop.unregister(this);
+        if (dragging && !touchResampler.isEmpty())
+            dragTo(touchResampler.getResampledY(frameTimeNanos));
+    }
+
+    private void dragTo(float y) {
+        int dy = (int) (lastY - y);
+        // Keep the leftover fraction of a pixel around for the next frame.
+        lastY -= dy;
+        if (dy != 0) card.setCardPosition(card.getCardPosition() + dy);
+    }
+}
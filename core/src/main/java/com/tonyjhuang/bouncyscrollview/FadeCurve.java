@@ -0,0 +1,25 @@
+package com.tonyjhuang.bouncyscrollview;
+
+/**
+ * How FadingBouncyScrollView fades its card out as it sinks below the scroll assist threshold.
+ */
+public final class FadeCurve {
+
+    /**
+     * > 1 so the card stays mostly visible until it's nearly gone.
+     */
+    public static final float EXPONENT = 1.6f;
+
+    private FadeCurve() {
+    }
+
+    /**
+     * Alpha for a card at position given the bottom scroll assist threshold. Fully opaque at or
+     * above the threshold.
+     */
+    public static float getAlpha(int position, int threshold) {
+        if (position >= threshold)
+            return 1f;
+        return (float) Math.pow(((float) position) / threshold, EXPONENT);
+    }
+}
@@ -0,0 +1,45 @@
+package com.tonyjhuang.bouncyscrollview;
+
+/**
+ * FadeCurve precomputed for every pixel below the threshold and quantized to the 256 alpha
+ * levels a View can actually show. Rebuilt only when the threshold changes, so a scroll frame
+ * is an array read instead of a Math.pow.
+ */
+public class FadeTable {
+
+    public static final int MAX_LEVEL = 255;
+
+    private int[] levels = new int[0];
+    private int threshold = -1;
+
+    /**
+     * Rebuild the table for a new threshold. Does nothing if the threshold hasn't changed.
+     */
+    public void setThreshold(int threshold) {
+        if (threshold == this.threshold)
+            return;
+        this.threshold = threshold;
+        if (levels.length < threshold)
+            levels = new int[threshold];
+        for (int position = 0; position < threshold; position++) {
+            levels[position] = Math.round(FadeCurve.getAlpha(position, threshold) * MAX_LEVEL);
+        }
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Quantized alpha for position, between 0 and MAX_LEVEL.
+     */
+    public int getLevel(int position) {
+        if (position >= threshold)
+            return MAX_LEVEL;
+        return levels[Math.max(0, position)];
+    }
+
+    public static float toAlpha(int level) {
+        return (float) level / MAX_LEVEL;
+    }
+}
@@ -0,0 +1,55 @@
+package com.tonyjhuang.bouncyscrollview;
+
+/**
+ * A card coasting to a stop after the finger lets go, like ScrollView's fling. The caller picks
+ * where it stops (ScrollMath.getFlingEndPosition()), and the card decelerates from its release
+ * velocity to land exactly there.
+ * <p/>
+ * Follows x(t) = d * (1 - (1 - t / T)^n) with n = 1 / 0.35, OverScroller's inflexion. Starting at
+ * velocity v that gives T = n * d / v, so an unclamped fling takes as long and goes as far as
+ * OverScroller's would. A fling cut short by an edge just decelerates harder.
+ */
+public class FlingScrollPhysics implements ScrollPhysics {
+
+    private static final double EXPONENT = 1 / 0.35;
+
+    private float start;
+    private float distance;
+    private double durationMillis;
+    private float position;
+    private float velocity;
+
+    @Override
+    public void start(float start, float end, float velocity) {
+        this.start = start;
+        this.distance = end - start;
+        this.position = start;
+        this.velocity = velocity;
+        // Nothing to coast with if we're not moving towards end.
+        durationMillis = distance == 0 || velocity == 0 || Math.signum(velocity) != Math.signum(distance)
+                ? 0 : EXPONENT * distance / velocity * 1000;
+    }
+
+    @Override
+    public boolean update(long elapsedMillis) {
+        if (elapsedMillis >= durationMillis) {
+            position = start + distance;
+            velocity = 0;
+            return false;
+        }
+        double remaining = 1 - elapsedMillis / durationMillis;
+        position = (float) (start + distance * (1 - Math.pow(remaining, EXPONENT)));
+        velocity = (float) (distance * EXPONENT * Math.pow(remaining, EXPONENT - 1) / durationMillis * 1000);
+        return true;
+    }
+
+    @Override
+    public float getPosition() {
+        return position;
+    }
+
+    @Override
+    public float getVelocity() {
+        return velocity;
+    }
+}
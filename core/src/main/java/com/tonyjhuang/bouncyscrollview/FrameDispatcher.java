@@ -0,0 +1,104 @@
+package com.tonyjhuang.bouncyscrollview;
+
+/**
+ * Steps every registered client once per frame. Clients stay registered until they remove
+ * themselves, and may add or remove clients (themselves included) from inside onFrame(): removed
+ * clients are skipped, added ones start on the next frame. Never allocates once the client array
+ * has grown to fit.
+ */
+public class FrameDispatcher {
+
+    public static interface Client {
+        public void onFrame(long frameTimeNanos);
+    }
+
+    private Client[] clients = new Client[4];
+    private int size = 0;
+    private boolean dispatching = false;
+
+    /**
+     * @return false if client was already registered.
+     */
+    public boolean add(Client client) {
+        if (indexOf(client) >= 0)
+            return false;
+        if (size == clients.length) {
+            Client[] grown = new Client[size * 2];
+            System.arraycopy(clients, 0, grown, 0, size);
+            clients = grown;
+        }
+        clients[size++] = client;
+        return true;
+    }
+
+    /**
+     * @return false if client wasn't registered.
+     */
+    public boolean remove(Client client) {
+        int index = indexOf(client);
+        if (index < 0)
+            return false;
+        if (dispatching) {
+            // Compacted once the frame is over.
+            clients[index] = null;
+        } else {
+            System.arraycopy(clients, index + 1, clients, index, size - index - 1);
+            clients[--size] = null;
+        }
+        return true;
+    }
+
+    public boolean contains(Client client) {
+        return indexOf(client) >= 0;
+    }
+
+    public int size() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (clients[i] != null)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Step everyone registered as of the start of this frame.
+     *
+     * @return true if anyone is still registered and wants another frame.
+     */
+    public boolean dispatch(long frameTimeNanos) {
+        int count = size;
+        dispatching = true;
+        try {
+            for (int i = 0; i < count; i++) {
+                Client client = clients[i];
+                if (client != null)
+                    client.onFrame(frameTimeNanos);
+            }
+        } finally {
+            dispatching = false;
+            compact();
+        }
+        return size > 0;
+    }
+
+    private int indexOf(Client client) {
+        for (int i = 0; i < size; i++) {
+            if (clients[i] == client)
+                return i;
+        }
+        return -1;
+    }
+
+    private void compact() {
+        int live = 0;
+        for (int i = 0; i < size; i++) {
+            if (clients[i] != null)
+                clients[live++] = clients[i];
+        }
+        for (int i = live; i < size; i++) {
+            clients[i] = null;
+        }
+        size = live;
+    }
+}
@@ -0,0 +1,89 @@
+package com.tonyjhuang.bouncyscrollview;
+
+/**
+ * Runs a FrameDispatcher off whatever produces frames. On a device that's the display (see
+ * FrameTicker in the app), in tests it's a ManualFrameScheduler so every frame and every
+ * timestamp is under the test's control.
+ */
+public class FrameLoop {
+
+    /**
+     * Where frames and time come from.
+     */
+    public static interface Scheduler {
+        /**
+         * Current time, in the same time base as the frame times passed to doFrame().
+         */
+        public long nanoTime();
+
+        /**
+         * Call loop.doFrame() once, on the next frame.
+         */
+        public void scheduleFrame(FrameLoop loop);
+    }
+
+    private final FrameDispatcher dispatcher = new FrameDispatcher();
+    private Scheduler scheduler;
+    private boolean frameScheduled = false;
+
+    public FrameLoop(Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Switch frame sources. Anything registered carries on with the new one.
+     */
+    public void setScheduler(Scheduler scheduler) {
+        this.scheduler = scheduler;
+        frameScheduled = false;
+        if (dispatcher.size() > 0)
+            scheduleFrame();
+    }
+
+    public long nanoTime() {
+        return scheduler.nanoTime();
+    }
+
+    /**
+     * Call client on every frame until it's unregistered.
+     */
+    public void register(FrameDispatcher.Client client) {
+        dispatcher.add(client);
+        scheduleFrame();
+    }
+
+    /**
+     * If this was the last client, one more (empty) frame may still be delivered.
+     */
+    public void unregister(FrameDispatcher.Client client) {
+        dispatcher.remove(client);
+    }
+
+    public boolean isRegistered(FrameDispatcher.Client client) {
+        return dispatcher.contains(client);
+    }
+
+    /**
+     * @return true if anyone's registered, ie frames are still wanted.
+     */
+    public boolean isActive() {
+        return dispatcher.size() > 0;
+    }
+
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        if (dispatcher.dispatch(frameTimeNanos))
+            scheduleFrame();
+    }
+
+    private void scheduleFrame() {
+        if (frameScheduled)
+            return;
+        frameScheduled = true;
+        scheduler.scheduleFrame(this);
+    }
+}
@@ -0,0 +1,82 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import java.io.PrintWriter;
+
+/**
+ * Fixed size history of AnimationFrameStats. Every slot is allocated up front and overwritten
+ * in place, so recording never allocates; once full the oldest entry is dropped.
+ */
+public class FrameStatsRing {
+
+    private static final String[] TYPE_NAMES = {"entry", "scroll_assist", "swap"};
+
+    private final AnimationFrameStats[] records;
+    private int next = 0;
+    private int size = 0;
+
+    public FrameStatsRing(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive");
+        records = new AnimationFrameStats[capacity];
+        for (int i = 0; i < capacity; i++) {
+            records[i] = new AnimationFrameStats();
+        }
+    }
+
+    public void add(AnimationFrameStats stats) {
+        records[next].copyFrom(stats);
+        next = (next + 1) % records.length;
+        if (size < records.length)
+            size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return records.length;
+    }
+
+    /**
+     * @param index 0 is the oldest record we still have.
+     */
+    public AnimationFrameStats get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        return records[(next - size + index + records.length) % records.length];
+    }
+
+    public void clear() {
+        next = 0;
+        size = 0;
+    }
+
+    /**
+     * Write every record, oldest first, one per line.
+     */
+    public void dump(PrintWriter writer) {
+        for (int i = 0; i < size; i++) {
+            AnimationFrameStats stats = get(i);
+            writer.print(TYPE_NAMES[stats.getType()]);
+            writer.print(" tag=");
+            writer.print(stats.getTag());
+            writer.print(" frames=");
+            writer.print(stats.getFrameCount());
+            writer.print(" dropped=");
+            writer.print(stats.getDroppedFrames());
+            writer.print(" longestMs=");
+            writer.print(stats.getLongestFrameNanos() / 1000000f);
+            writer.print(" durationMs=");
+            writer.print(stats.getDurationNanos() / 1000000f);
+            if (stats.getTouchUpToSettleNanos() >= 0) {
+                writer.print(" touchUpToSettleMs=");
+                writer.print(stats.getTouchUpToSettleNanos() / 1000000f);
+            }
+            if (stats.isCancelled())
+                writer.print(" cancelled");
+            writer.println();
+        }
+        writer.flush();
+    }
+}
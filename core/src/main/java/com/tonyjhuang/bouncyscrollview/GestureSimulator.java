@@ -0,0 +1,451 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * A headless BouncyScrollView card for tests and benchmarks. Runs recorded gestures through the
+ * same pieces the view uses (TouchState, a CardDragController, ScrollMath's fling prediction and
+ * scroll assist target, SpringScrollPhysics and a ScrollAnimationController on a FrameLoop) on a
+ * ManualFrameScheduler, so a replay is deterministic and runs on a plain JVM. Only the view
+ * plumbing around them (MotionEvents, VelocityTracker) is stood in for here.
+ * <p/>
+ * Drags resample touches and move the card once per frame, like the view does. Turn that off
+ * with setTouchResampling(false) to move the card on every event instead, which is what
+ * ScrollView does, and compare Result.getMeanDragLag().
+ * <p/>
+ * The card sits in a column height pixels tall. Positions are BouncyScrollView card positions: 0
+ * is just below the bottom edge and height + cardHeight just above the top edge.
+ */
+public class GestureSimulator {
+
+    /**
+     * ViewConfiguration's defaults, in dp/s, and its default scroll friction.
+     */
+    private static final float MINIMUM_FLING_VELOCITY = 50;
+    private static final float MAXIMUM_FLING_VELOCITY = 8000;
+    private static final float SCROLL_FRICTION = 0.015f;
+
+    /**
+     * Like VelocityTracker, only the last VELOCITY_WINDOW_MILLIS of movement counts.
+     */
+    private static final int VELOCITY_SAMPLES = 20;
+    private static final long VELOCITY_WINDOW_MILLIS = 100;
+
+    /**
+     * Give up on a replay whose card is still moving after this many frames.
+     */
+    private static final int MAX_SETTLE_FRAMES = 60 * 30;
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final int height;
+    private final int cardHeight;
+    private final int startingPosition;
+    private final int maxPosition;
+    private final float scrollAssistThreshold;
+    private final float minimumFlingVelocity;
+    private final float maximumFlingVelocity;
+    private final float physicalCoeff;
+
+    private final ManualFrameScheduler scheduler = new ManualFrameScheduler();
+    private final FrameLoop frameLoop = new FrameLoop(scheduler);
+    private final TouchState touchState = new TouchState();
+    private final SimulatedCard card = new SimulatedCard();
+    private final ScrollAnimationController animator = new ScrollAnimationController(frameLoop, card);
+    private final CardDragController cardDrag = new CardDragController(frameLoop, card);
+    private final SpringScrollPhysics entryPhysics = SpringScrollPhysics.overshoot();
+    private final SpringScrollPhysics assistPhysics = SpringScrollPhysics.assist();
+    private final Result result = new Result();
+    private final LagProbe lagProbe = new LagProbe();
+
+    private final long[] sampleTimes = new long[VELOCITY_SAMPLES];
+    private final float[] sampleYs = new float[VELOCITY_SAMPLES];
+    private int sampleCount = 0;
+    private int nextSample = 0;
+
+    private int position;
+
+    /**
+     * Where the drag started, to tell where the card thinks the finger is, and the gesture being
+     * replayed, to tell where the finger really is.
+     */
+    private float dragStartY;
+    private int dragStartPosition;
+    private Gesture gesture;
+    private long gestureStartNanos;
+    private double dragLagSum;
+    private int dragLagFrames;
+
+    /**
+     * @param relativeStartingPosition fraction of the screen from the top the card rests at.
+     * @param density                  display density, for fling velocities and distances.
+     */
+    public GestureSimulator(int height, int cardHeight, float relativeStartingPosition,
+                            float scrollAssistThreshold, float density) {
+        this.height = height;
+        this.cardHeight = cardHeight;
+        this.startingPosition = ScrollMath.getAbsoluteStartingPosition(relativeStartingPosition, height);
+        this.maxPosition = height + cardHeight;
+        this.scrollAssistThreshold = scrollAssistThreshold;
+        this.minimumFlingVelocity = MINIMUM_FLING_VELOCITY * density;
+        this.maximumFlingVelocity = MAXIMUM_FLING_VELOCITY * density;
+        this.physicalCoeff = ScrollMath.getPhysicalCoeff(density);
+        this.position = startingPosition;
+    }
+
+    /**
+     * Put the card back at rest at its starting position.
+     */
+    public void reset() {
+        animator.stop();
+        cardDrag.cancel();
+        frameLoop.unregister(lagProbe);
+        touchState.reset();
+        sampleCount = 0;
+        position = startingPosition;
+    }
+
+    /**
+     * Bounce the card in from the bottom like animateToStartingPosition() and let it settle.
+     */
+    public Result enter() {
+        long startAllocated = getAllocatedBytes();
+        int startFrames = scheduler.getFramesRun();
+        touchState.reset();
+        animator.start(AnimationFrameStats.TYPE_ENTRY, 1, startingPosition, entryPhysics, null);
+        return finish(startFrames, startAllocated);
+    }
+
+    /**
+     * Play gesture, starting now, then run frames until the card stops moving. The returned
+     * Result is reused by the next replay.
+     */
+    public Result replay(Gesture gesture) {
+        long startAllocated = getAllocatedBytes();
+        int startFrames = scheduler.getFramesRun();
+        this.gesture = gesture;
+        gestureStartNanos = scheduler.nanoTime();
+        dragLagSum = 0;
+        dragLagFrames = 0;
+        for (int i = 0; i < gesture.size; i++) {
+            long eventNanos = gestureStartNanos + gesture.times[i] * 1000000;
+            scheduler.advanceTo(eventNanos);
+            onTouchEvent(gesture.actions[i], gesture.ys[i], eventNanos);
+        }
+        this.gesture = null;
+        return finish(startFrames, startAllocated);
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public int getStartingPosition() {
+        return startingPosition;
+    }
+
+    public int getMaxPosition() {
+        return maxPosition;
+    }
+
+    public ManualFrameScheduler getScheduler() {
+        return scheduler;
+    }
+
+    public boolean isTouchResampling() {
+        return cardDrag.isResampling();
+    }
+
+    public void setTouchResampling(boolean touchResampling) {
+        cardDrag.setResampling(touchResampling);
+    }
+
+    private Result finish(int startFrames, long startAllocated) {
+        scheduler.runUntilIdle(MAX_SETTLE_FRAMES);
+        long endAllocated = getAllocatedBytes();
+        result.frames = scheduler.getFramesRun() - startFrames;
+        result.allocatedBytes = startAllocated < 0 || endAllocated < 0 ? -1 : endAllocated - startAllocated;
+        result.position = position;
+        result.progress = ScrollMath.getProgress(position, startingPosition, maxPosition);
+        result.settled = !animator.isRunning();
+        result.meanDragLag = dragLagFrames == 0 ? 0 : (float) (dragLagSum / dragLagFrames);
+        return result;
+    }
+
+    /* Touch */
+
+    private void onTouchEvent(int action, float y, long timeNanos) {
+        boolean touchingCard = isTouchingCard(y);
+        touchState.onInterceptTouchEvent(action, touchingCard);
+        if (action == TouchState.ACTION_DOWN) {
+            sampleCount = 0;
+            cardDrag.reset();
+            if (touchState.isDraggingInside())
+                animator.stop();
+        }
+        if (touchState.onTouchEvent(action, touchingCard)) {
+            addVelocitySample(timeNanos / 1000000, y);
+            cardDrag.addSample(timeNanos, y);
+            switch (action) {
+                case TouchState.ACTION_DOWN:
+                    cardDrag.start(y);
+                    dragStartY = y;
+                    dragStartPosition = position;
+                    frameLoop.register(lagProbe);
+                    break;
+                case TouchState.ACTION_MOVE:
+                    cardDrag.onMove();
+                    // Measure after the card has moved for the frame.
+                    frameLoop.unregister(lagProbe);
+                    frameLoop.register(lagProbe);
+                    break;
+                case TouchState.ACTION_UP:
+                case TouchState.ACTION_CANCEL:
+                    cardDrag.end(y);
+                    frameLoop.unregister(lagProbe);
+                    if (action == TouchState.ACTION_UP)
+                        flingWithScrollAssist();
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Where the finger really was at timeNanos, from the recorded gesture.
+     */
+    private float getFingerY(long timeNanos) {
+        long timeMillis = (timeNanos - gestureStartNanos) / 1000000;
+        int i = 0;
+        while (i < gesture.size - 1 && gesture.times[i + 1] <= timeMillis) {
+            i++;
+        }
+        if (i == gesture.size - 1 || gesture.times[i + 1] == gesture.times[i])
+            return gesture.ys[i];
+        float alpha = (float) (timeMillis - gesture.times[i]) / (gesture.times[i + 1] - gesture.times[i]);
+        return gesture.ys[i] + (gesture.ys[i + 1] - gesture.ys[i]) * alpha;
+    }
+
+    private boolean isTouchingCard(float y) {
+        int cardTop = height - position;
+        return y > cardTop && y < cardTop + cardHeight;
+    }
+
+    private void flingWithScrollAssist() {
+        // Finger moving up (negative y velocity) moves the card up, which is a larger position.
+        float velocity = -getYVelocity();
+        int predicted = ScrollMath.getFlingEndPosition(position, velocity, minimumFlingVelocity,
+                SCROLL_FRICTION, physicalCoeff, maxPosition);
+        int target = ScrollMath.getScrollAssistTarget(predicted, height, cardHeight, startingPosition,
+                maxPosition, scrollAssistThreshold);
+        animator.animateTo(AnimationFrameStats.TYPE_SCROLL_ASSIST, target, velocity, assistPhysics, null);
+    }
+
+    private void addVelocitySample(long timeMillis, float y) {
+        sampleTimes[nextSample] = timeMillis;
+        sampleYs[nextSample] = y;
+        nextSample = (nextSample + 1) % VELOCITY_SAMPLES;
+        if (sampleCount < VELOCITY_SAMPLES)
+            sampleCount++;
+    }
+
+    /**
+     * Least squares slope of the recent samples, in px/s, clamped like
+     * VelocityTracker.computeCurrentVelocity(1000, maximumFlingVelocity).
+     */
+    private float getYVelocity() {
+        if (sampleCount < 2)
+            return 0;
+        int newest = (nextSample - 1 + VELOCITY_SAMPLES) % VELOCITY_SAMPLES;
+        long newestTime = sampleTimes[newest];
+        int count = 0;
+        double sumT = 0, sumY = 0, sumTT = 0, sumTY = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            int index = (newest - i + VELOCITY_SAMPLES) % VELOCITY_SAMPLES;
+            long age = newestTime - sampleTimes[index];
+            if (age > VELOCITY_WINDOW_MILLIS)
+                break;
+            double t = -age / 1000.0;
+            double y = sampleYs[index];
+            sumT += t;
+            sumY += y;
+            sumTT += t * t;
+            sumTY += t * y;
+            count++;
+        }
+        double denominator = count * sumTT - sumT * sumT;
+        if (count < 2 || denominator == 0)
+            return 0;
+        float velocity = (float) ((count * sumTY - sumT * sumY) / denominator);
+        return Math.max(-maximumFlingVelocity, Math.min(maximumFlingVelocity, velocity));
+    }
+
+    private int clamp(int position) {
+        return Math.max(0, Math.min(maxPosition, position));
+    }
+
+    private static long getAllocatedBytes() {
+        if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Registered for the length of a drag. Measures how far behind the finger the card is on
+     * every frame.
+     */
+    private class LagProbe implements FrameDispatcher.Client {
+
+        @Override
+        public void onFrame(long frameTimeNanos) {
+            if (!cardDrag.isDragging())
+                return;
+            if (gesture != null) {
+                float cardFingerY = dragStartY - (position - dragStartPosition);
+                dragLagSum += Math.abs(getFingerY(frameTimeNanos) - cardFingerY);
+                dragLagFrames++;
+            }
+        }
+    }
+
+    private class SimulatedCard implements ScrollAnimationController.Card {
+
+        @Override
+        public int getCardPosition() {
+            return position;
+        }
+
+        @Override
+        public void setCardPosition(int position) {
+            GestureSimulator.this.position = clamp(position);
+        }
+    }
+
+    /**
+     * A recorded touch stream. Times are milliseconds from the start of the replay.
+     */
+    public static class Gesture {
+
+        private int[] actions = new int[16];
+        private float[] ys = new float[16];
+        private long[] times = new long[16];
+        private int size = 0;
+
+        /**
+         * A finger going down at fromY and sliding to toY over durationMillis, with a move
+         * about every frame, then lifting.
+         */
+        public static Gesture drag(float fromY, float toY, long durationMillis) {
+            return drag(fromY, toY, durationMillis, 16);
+        }
+
+        /**
+         * Like drag(fromY, toY, durationMillis) with a move every sampleIntervalMillis, eg 8 for
+         * a 120Hz touch panel.
+         */
+        public static Gesture drag(float fromY, float toY, long durationMillis, long sampleIntervalMillis) {
+            Gesture gesture = new Gesture().down(0, fromY);
+            int moves = (int) Math.max(1, durationMillis / sampleIntervalMillis);
+            for (int i = 1; i <= moves; i++) {
+                gesture.move(durationMillis * i / moves, fromY + (toY - fromY) * i / moves);
+            }
+            return gesture.up(durationMillis, toY);
+        }
+
+        public Gesture down(long timeMillis, float y) {
+            return add(TouchState.ACTION_DOWN, timeMillis, y);
+        }
+
+        public Gesture move(long timeMillis, float y) {
+            return add(TouchState.ACTION_MOVE, timeMillis, y);
+        }
+
+        public Gesture up(long timeMillis, float y) {
+            return add(TouchState.ACTION_UP, timeMillis, y);
+        }
+
+        public Gesture cancel(long timeMillis, float y) {
+            return add(TouchState.ACTION_CANCEL, timeMillis, y);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        private Gesture add(int action, long timeMillis, float y) {
+            if (size > 0 && timeMillis < times[size - 1])
+                throw new IllegalArgumentException("Events must be in time order");
+            if (size == actions.length) {
+                int[] grownActions = new int[size * 2];
+                float[] grownYs = new float[size * 2];
+                long[] grownTimes = new long[size * 2];
+                System.arraycopy(actions, 0, grownActions, 0, size);
+                System.arraycopy(ys, 0, grownYs, 0, size);
+                System.arraycopy(times, 0, grownTimes, 0, size);
+                actions = grownActions;
+                ys = grownYs;
+                times = grownTimes;
+            }
+            actions[size] = action;
+            ys[size] = y;
+            times[size] = timeMillis;
+            size++;
+            return this;
+        }
+    }
+
+    /**
+     * What a replay did.
+     */
+    public static class Result {
+
+        private int frames;
+        private long allocatedBytes;
+        private int position;
+        private float progress;
+        private boolean settled;
+        private float meanDragLag;
+
+        /**
+         * Frames delivered while the gesture played and the card settled.
+         */
+        public int getFrames() {
+            return frames;
+        }
+
+        /**
+         * Bytes allocated on this thread during the replay, or -1 if the JVM can't tell us.
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        /**
+         * See ScrollMath.getProgress().
+         */
+        public float getProgress() {
+            return progress;
+        }
+
+        /**
+         * Average distance in px between the finger and the spot on the card it grabbed, over
+         * every frame of the drag.
+         */
+        public float getMeanDragLag() {
+            return meanDragLag;
+        }
+
+        /**
+         * false if the card was still moving when we gave up waiting for it.
+         */
+        public boolean isSettled() {
+            return settled;
+        }
+    }
+}
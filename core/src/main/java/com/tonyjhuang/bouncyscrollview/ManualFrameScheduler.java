@@ -0,0 +1,86 @@
+package com.tonyjhuang.bouncyscrollview;
+
+/**
+ * A FrameLoop.Scheduler that only moves when told to. Time starts at 0 and advances in whole
+ * frames, so replaying the same input always produces the same frames.
+ */
+public class ManualFrameScheduler implements FrameLoop.Scheduler {
+
+    public static final long FRAME_INTERVAL_60HZ = 16666667L;
+
+    private final long frameIntervalNanos;
+    private long nanoTime = 0;
+    private FrameLoop pendingLoop;
+    private int framesRun = 0;
+
+    public ManualFrameScheduler() {
+        this(FRAME_INTERVAL_60HZ);
+    }
+
+    public ManualFrameScheduler(long frameIntervalNanos) {
+        if (frameIntervalNanos <= 0)
+            throw new IllegalArgumentException("frameIntervalNanos must be positive");
+        this.frameIntervalNanos = frameIntervalNanos;
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanoTime;
+    }
+
+    @Override
+    public void scheduleFrame(FrameLoop loop) {
+        pendingLoop = loop;
+    }
+
+    /**
+     * Move time forward one frame, delivering it if one was asked for.
+     *
+     * @return true if a frame was delivered.
+     */
+    public boolean step() {
+        nanoTime += frameIntervalNanos;
+        FrameLoop loop = pendingLoop;
+        if (loop == null)
+            return false;
+        pendingLoop = null;
+        framesRun++;
+        loop.doFrame(nanoTime);
+        return true;
+    }
+
+    /**
+     * Step until time reaches nanoTime.
+     */
+    public void advanceTo(long nanoTime) {
+        while (this.nanoTime + frameIntervalNanos <= nanoTime) {
+            step();
+        }
+    }
+
+    /**
+     * Step until nobody wants frames anymore, or maxFrames have gone by.
+     *
+     * @return false if we gave up after maxFrames.
+     */
+    public boolean runUntilIdle(int maxFrames) {
+        for (int i = 0; i < maxFrames; i++) {
+            if (pendingLoop == null)
+                return true;
+            step();
+        }
+        return pendingLoop == null;
+    }
+
+    public boolean isFramePending() {
+        return pendingLoop != null;
+    }
+
+    public int getFramesRun() {
+        return framesRun;
+    }
+
+    public long getFrameIntervalNanos() {
+        return frameIntervalNanos;
+    }
+}
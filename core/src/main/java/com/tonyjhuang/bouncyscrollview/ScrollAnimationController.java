@@ -0,0 +1,150 @@
+package com.tonyjhuang.bouncyscrollview;
+
+/**
+ * Animates a card with a ScrollPhysics once per frame; starting a new motion retargets the old one.
+ */
+public class ScrollAnimationController implements FrameDispatcher.Client {
+
+    /**
+     * Whatever's being animated.
+     */
+    public static interface Card {
+        public int getCardPosition();
+
+        public void setCardPosition(int position);
+    }
+
+    /**
+     * Hooks for frame stats and counters. Called on every start, frame and end, so don't
+     * allocate.
+     */
+    public static interface Listener {
+        public void onAnimationStarted(ScrollAnimationController controller);
+
+        /**
+         * Called before the card is moved for frameTimeNanos.
+         */
+        public void onAnimationFrame(ScrollAnimationController controller, long frameTimeNanos);
+
+        /**
+         * @param cancelled true if stop() (or a new motion) cut it short, false if it came to
+         *                  rest. Called before the end action runs.
+         */
+        public void onAnimationEnded(ScrollAnimationController controller, boolean cancelled);
+    }
+
+    private final FrameLoop frameLoop;
+    private final Card card;
+    private Listener listener;
+
+    private ScrollPhysics physics;
+    private Runnable endAction;
+    private long startNanos;
+    private boolean running = false;
+    private int type;
+    private int target;
+
+    public ScrollAnimationController(FrameLoop frameLoop, Card card) {
+        this.frameLoop = frameLoop;
+        this.card = card;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Jump to from and animate to to.
+     *
+     * @param type one of the AnimationFrameStats types, for PerformanceListener.
+     */
+    public void start(int type, int from, int to, ScrollPhysics physics, Runnable endAction) {
+        stop();
+        card.setCardPosition(from);
+        begin(type, from, to, 0, physics, endAction);
+    }
+
+    /**
+     * Animate from wherever the card is right now to to.
+     *
+     * @param type one of the AnimationFrameStats types, for PerformanceListener.
+     */
+    public void animateTo(int type, int to, ScrollPhysics physics, Runnable endAction) {
+        animateTo(type, to, running ? this.physics.getVelocity() : 0, physics, endAction);
+    }
+
+    /**
+     * Animate from wherever the card is right now to to, starting at velocity (px/s).
+     */
+    public void animateTo(int type, int to, float velocity, ScrollPhysics physics, Runnable endAction) {
+        float from = running ? this.physics.getPosition() : card.getCardPosition();
+        stop();
+        begin(type, from, to, velocity, physics, endAction);
+    }
+
+    private void begin(int type, float from, int to, float velocity, ScrollPhysics physics, Runnable endAction) {
+        this.type = type;
+        this.target = to;
+        this.physics = physics;
+        this.endAction = endAction;
+        if (listener != null) listener.onAnimationStarted(this);
+        physics.start(from, to, velocity);
+        startNanos = frameLoop.nanoTime();
+        running = true;
+        frameLoop.register(this);
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    /**
+     * Carry on from from to to with the same physics, velocity and end action, eg after the
+     * view's size changed under a running animation.
+     */
+    public void retarget(int from, int to) {
+        if (!running)
+            return;
+        target = to;
+        physics.start(from, to, physics.getVelocity());
+        startNanos = frameLoop.nanoTime();
+    }
+
+    /**
+     * Stop where we are without running the end action.
+     */
+    public void stop() {
+        if (!running)
+            return;
+        running = false;
+        endAction = null;
+        frameLoop.unregister(this);
+        if (listener != null) listener.onAnimationEnded(this, true);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void onFrame(long frameTimeNanos) {
+        if (!running)
+            return;
+        if (listener != null) listener.onAnimationFrame(this, frameTimeNanos);
+        // The frame can be timestamped a little before we started if we began mid frame.
+        boolean moving = physics.update(Math.max(0, frameTimeNanos - startNanos) / 1000000);
+        card.setCardPosition(Math.round(physics.getPosition()));
+        if (!moving) {
+            running = false;
+            frameLoop.unregister(this);
+            if (listener != null) listener.onAnimationEnded(this, false);
+            Runnable action = endAction;
+            endAction = null;
+            if (action != null) action.run();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.tonyjhuang.bouncyscrollview;
+
+/**
+ * The position math behind BouncyScrollView, pulled out so it can be benchmarked on a plain JVM.
+ * Positions are in the same units as BouncyScrollView's scrollY: 0 means the card is just below
+ * the bottom edge and height + cardHeight means it's just above the top edge.
+ */
+public final class ScrollMath {
+
+    public static final int ASSIST_NONE = 0;
+    public static final int ASSIST_DOWN = 1;
+    public static final int ASSIST_UP = 2;
+
+    /**
+     * Constants from android.widget.OverScroller so our fling predictions match ScrollView's.
+     */
+    private static final float DECELERATION_RATE = (float) (Math.log(0.78) / Math.log(0.9));
+    private static final float INFLEXION = 0.35f;
+    private static final float GRAVITY_EARTH = 9.80665f;
+
+    private ScrollMath() {
+    }
+
+    /**
+     * How far up the card can be before scroll assist pulls it back down off screen.
+     */
+    public static int getBottomScrollAssistThreshold(int cardHeight, float scrollAssistThreshold) {
+        return (int) (cardHeight * scrollAssistThreshold);
+    }
+
+    /**
+     * How far up the card has to be before scroll assist pushes it up off screen.
+     */
+    public static int getTopScrollAssistThreshold(int height, int cardHeight, float scrollAssistThreshold) {
+        return height - getBottomScrollAssistThreshold(cardHeight, scrollAssistThreshold);
+    }
+
+    /**
+     * relativeStartingPosition is the fraction of the screen (from the top) the card should rest
+     * at.
+     */
+    public static int getAbsoluteStartingPosition(float relativeStartingPosition, int height) {
+        return (int) ((1 - relativeStartingPosition) * height);
+    }
+
+    /**
+     * How far the card at position has moved from its starting position towards leaving the
+     * screen: 0 at start, 1 just above the top edge (maxPosition) and -1 just below the bottom
+     * edge (0).
+     */
+    public static float getProgress(int position, int startingPosition, int maxPosition) {
+        if (position >= startingPosition) {
+            int range = maxPosition - startingPosition;
+            return range <= 0 ? 0f : Math.min(1f, (float) (position - startingPosition) / range);
+        }
+        return startingPosition <= 0 ? 0f : Math.max(-1f, (float) (position - startingPosition) / startingPosition);
+    }
+
+    /**
+     * The position getProgress() would map to progress.
+     */
+    public static int getPosition(float progress, int startingPosition, int maxPosition) {
+        if (progress >= 0)
+            return startingPosition + Math.round(Math.min(1f, progress) * (maxPosition - startingPosition));
+        return startingPosition + Math.round(Math.max(-1f, progress) * startingPosition);
+    }
+
+    /**
+     * Which way should scroll assist send a card resting at position? One of ASSIST_NONE,
+     * ASSIST_DOWN or ASSIST_UP.
+     */
+    public static int getScrollAssistDirection(int position, int height, int cardHeight,
+                                               float scrollAssistThreshold) {
+        if (position <= getBottomScrollAssistThreshold(cardHeight, scrollAssistThreshold)) {
+            return ASSIST_DOWN;
+        } else if (position >= getTopScrollAssistThreshold(height, cardHeight, scrollAssistThreshold)) {
+            return ASSIST_UP;
+        }
+        return ASSIST_NONE;
+    }
+
+    /**
+     * Where scroll assist sends a card that's going to come to rest at position: off the bottom
+     * (0), off the top (maxPosition) or back to startingPosition.
+     */
+    public static int getScrollAssistTarget(int position, int height, int cardHeight, int startingPosition,
+                                            int maxPosition, float scrollAssistThreshold) {
+        switch (getScrollAssistDirection(position, height, cardHeight, scrollAssistThreshold)) {
+            case ASSIST_DOWN:
+                return 0;
+            case ASSIST_UP:
+                return maxPosition;
+            default:
+                return startingPosition;
+        }
+    }
+
+    /**
+     * Where a card released at position with velocity (px/s, positive is up) would coast to,
+     * clamped to [0, maxPosition]. Anything slower than minimumFlingVelocity doesn't coast.
+     */
+    public static int getFlingEndPosition(int position, float velocity, float minimumFlingVelocity,
+                                          float friction, float physicalCoeff, int maxPosition) {
+        float distance = Math.abs(velocity) < minimumFlingVelocity
+                ? 0 : getFlingDistance(velocity, friction, physicalCoeff);
+        return (int) Math.max(0, Math.min(maxPosition, position + distance));
+    }
+
+    /**
+     * The physical coefficient OverScroller uses for a screen of the given density.
+     */
+    public static float getPhysicalCoeff(float density) {
+        float ppi = density * 160.0f;
+        return GRAVITY_EARTH * 39.37f * ppi * 0.84f;
+    }
+
+    /**
+     * How far a fling at velocity (px/s, signed) travels before it stops, the same way
+     * OverScroller (and so ScrollView) works it out.
+     */
+    public static float getFlingDistance(float velocity, float friction, float physicalCoeff) {
+        if (velocity == 0)
+            return 0;
+        double deceleration = Math.log(INFLEXION * Math.abs(velocity) / (friction * physicalCoeff));
+        double distance = friction * physicalCoeff
+                * Math.exp(DECELERATION_RATE / (DECELERATION_RATE - 1.0) * deceleration);
+        return (float) (Math.signum(velocity) * distance);
+    }
+}
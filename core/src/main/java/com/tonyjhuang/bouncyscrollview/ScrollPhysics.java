@@ -0,0 +1,28 @@
+package com.tonyjhuang.bouncyscrollview;
+
+/**
+ * Describes how BouncyScrollView moves its card from one scroll position to another. Positions
+ * are scrollY values in pixels and velocities are in pixels per second.
+ * <p/>
+ * Implementations are stepped once per frame, so update() shouldn't allocate. Every instance
+ * holds the state of one motion, so don't share an instance between BouncyScrollViews.
+ */
+public interface ScrollPhysics {
+
+    /**
+     * Begin a new motion from start to end. velocity is the speed the card is already moving at,
+     * eg the finger's release velocity or the velocity of a motion we're interrupting.
+     */
+    public void start(float start, float end, float velocity);
+
+    /**
+     * Move the simulation to elapsedMillis after start() was called.
+     *
+     * @return true if the card is still moving, false once it has come to rest at the end.
+     */
+    public boolean update(long elapsedMillis);
+
+    public float getPosition();
+
+    public float getVelocity();
+}
@@ -0,0 +1,174 @@
+package com.tonyjhuang.bouncyscrollview;
+
+/**
+ * A damped spring pulling the card towards its target. Every frame is solved analytically from
+ * the starting displacement and velocity, so there is no integration drift and no per-frame
+ * allocation, and an initial velocity carries straight into the motion.
+ */
+public class SpringScrollPhysics implements ScrollPhysics {
+
+    /**
+     * Once we're this close (in px) and this slow (in px/s) we snap to the target and stop.
+     */
+    private static final float REST_DISPLACEMENT = 0.5f;
+    private static final float REST_VELOCITY = 10f;
+
+    /**
+     * overshoot(duration) decays the spring to this fraction of the distance by the end of the
+     * duration. Whatever's left then is well under a pixel for anything that fits on a screen.
+     */
+    private static final double SETTLED_FRACTION = 0.001;
+
+    private final float stiffness;
+    private final float dampingRatio;
+    private final double naturalFrequency;
+    private final long duration;
+
+    private float end;
+
+    /**
+     * Coefficients of the closed form solution, computed once in start().
+     */
+    private double a;
+    private double b;
+    private double r1;
+    private double r2;
+    private double dampedFrequency;
+
+    private float position;
+    private float velocity;
+
+    /**
+     * @param stiffness    spring constant for a unit mass. Higher is snappier.
+     * @param dampingRatio less than 1 overshoots the target, 1 is critically damped and more
+     *                     than 1 creeps into place.
+     */
+    public SpringScrollPhysics(float stiffness, float dampingRatio) {
+        this(stiffness, dampingRatio, 0);
+    }
+
+    /**
+     * @param duration if > 0, snap to the target and stop this many ms after start() no matter
+     *                 how much is left.
+     */
+    public SpringScrollPhysics(float stiffness, float dampingRatio, long duration) {
+        if (stiffness <= 0 || dampingRatio <= 0)
+            throw new IllegalArgumentException("stiffness and dampingRatio must be positive");
+        if (duration < 0)
+            throw new IllegalArgumentException("duration must be >= 0");
+        this.stiffness = stiffness;
+        this.dampingRatio = dampingRatio;
+        this.naturalFrequency = Math.sqrt(stiffness);
+        this.duration = duration;
+    }
+
+    /**
+     * The original entry bounce, an OvershootInterpolator over 500ms.
+     */
+    public static SpringScrollPhysics overshoot() {
+        return overshoot(500);
+    }
+
+    /**
+     * Overshoots by about as much as an OvershootInterpolator (13%) and is done within
+     * durationMillis, the stiffness is worked out from it.
+     */
+    public static SpringScrollPhysics overshoot(int durationMillis) {
+        if (durationMillis <= 0)
+            throw new IllegalArgumentException("durationMillis must be positive");
+        float dampingRatio = 0.55f;
+        double naturalFrequency = -Math.log(SETTLED_FRACTION) / (dampingRatio * durationMillis / 1000.0);
+        return new SpringScrollPhysics((float) (naturalFrequency * naturalFrequency), dampingRatio, durationMillis);
+    }
+
+    /**
+     * Quick, critically damped motion for scroll assist. Never overshoots.
+     */
+    public static SpringScrollPhysics assist() {
+        return new SpringScrollPhysics(900f, 1f);
+    }
+
+    @Override
+    public void start(float start, float end, float velocity) {
+        this.end = end;
+        this.position = start;
+        this.velocity = velocity;
+
+        double x0 = start - end;
+        double w = naturalFrequency;
+        if (dampingRatio < 1) {
+            dampedFrequency = w * Math.sqrt(1 - dampingRatio * dampingRatio);
+            a = x0;
+            b = (velocity + dampingRatio * w * x0) / dampedFrequency;
+        } else if (dampingRatio == 1) {
+            a = x0;
+            b = velocity + w * x0;
+        } else {
+            double s = w * Math.sqrt(dampingRatio * dampingRatio - 1);
+            r1 = -dampingRatio * w + s;
+            r2 = -dampingRatio * w - s;
+            b = (r1 * x0 - velocity) / (r1 - r2);
+            a = x0 - b;
+        }
+    }
+
+    @Override
+    public boolean update(long elapsedMillis) {
+        double t = elapsedMillis / 1000.0;
+        double w = naturalFrequency;
+        double x;
+        double v;
+        if (dampingRatio < 1) {
+            double decay = Math.exp(-dampingRatio * w * t);
+            double cos = Math.cos(dampedFrequency * t);
+            double sin = Math.sin(dampedFrequency * t);
+            x = decay * (a * cos + b * sin);
+            v = decay * (-dampingRatio * w * (a * cos + b * sin)
+                    + dampedFrequency * (b * cos - a * sin));
+        } else if (dampingRatio == 1) {
+            double decay = Math.exp(-w * t);
+            x = (a + b * t) * decay;
+            v = (b - w * (a + b * t)) * decay;
+        } else {
+            double e1 = Math.exp(r1 * t);
+            double e2 = Math.exp(r2 * t);
+            x = a * e1 + b * e2;
+            v = a * r1 * e1 + b * r2 * e2;
+        }
+
+        if ((Math.abs(x) < REST_DISPLACEMENT && Math.abs(v) < REST_VELOCITY)
+                || (duration > 0 && elapsedMillis >= duration)) {
+            position = end;
+            velocity = 0;
+            return false;
+        }
+        position = (float) (end + x);
+        velocity = (float) v;
+        return true;
+    }
+
+    @Override
+    public float getPosition() {
+        return position;
+    }
+
+    @Override
+    public float getVelocity() {
+        return velocity;
+    }
+
+    public float getStiffness() {
+        return stiffness;
+    }
+
+    public float getDampingRatio() {
+        return dampingRatio;
+    }
+
+    /**
+     * 0 if the spring just runs until it comes to rest.
+     */
+    public long getDuration() {
+        return duration;
+    }
+}
@@ -0,0 +1,90 @@
+package com.tonyjhuang.bouncyscrollview;
+
+/**
+ * Works out where the finger is at a frame's timestamp from the touch samples seen so far,
+ * including the historical ones batched into each MOVE. Between samples we interpolate; past the
+ * newest one we extrapolate from the last two, but never more than MAX_PREDICTION_NANOS ahead so
+ * a sudden stop doesn't fling the card past the finger. Samples go in a fixed ring, nothing is
+ * allocated after construction.
+ */
+public class TouchResampler {
+
+    /**
+     * Same limits the framework's input resampling uses.
+     */
+    public static final long MAX_PREDICTION_NANOS = 8000000L;
+    private static final long MIN_SAMPLE_SPACING_NANOS = 2000000L;
+
+    private static final int CAPACITY = 8;
+
+    private final long[] times = new long[CAPACITY];
+    private final float[] ys = new float[CAPACITY];
+    private int newest = -1;
+    private int size = 0;
+
+    public void reset() {
+        newest = -1;
+        size = 0;
+    }
+
+    /**
+     * Samples must be added in time order. One with the same timestamp as the newest replaces it.
+     */
+    public void addSample(long timeNanos, float y) {
+        if (size > 0 && timeNanos <= times[newest]) {
+            if (timeNanos == times[newest])
+                ys[newest] = y;
+            return;
+        }
+        newest = (newest + 1) % CAPACITY;
+        times[newest] = timeNanos;
+        ys[newest] = y;
+        if (size < CAPACITY)
+            size++;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public float getNewestY() {
+        return ys[newest];
+    }
+
+    public long getNewestTime() {
+        return times[newest];
+    }
+
+    /**
+     * Where the finger was, or probably will be, at timeNanos.
+     */
+    public float getResampledY(long timeNanos) {
+        if (size == 0)
+            throw new IllegalStateException("No samples");
+        if (size == 1 || timeNanos == times[newest])
+            return ys[newest];
+
+        if (timeNanos < times[newest]) {
+            // Find the samples either side of timeNanos.
+            int later = newest;
+            for (int i = 1; i < size; i++) {
+                int earlier = (later - 1 + CAPACITY) % CAPACITY;
+                if (times[earlier] <= timeNanos)
+                    return lerp(earlier, later, timeNanos);
+                later = earlier;
+            }
+            return ys[later];
+        }
+
+        int previous = (newest - 1 + CAPACITY) % CAPACITY;
+        if (times[newest] - times[previous] < MIN_SAMPLE_SPACING_NANOS)
+            return ys[newest];
+        long target = Math.min(timeNanos, times[newest] + MAX_PREDICTION_NANOS);
+        return lerp(previous, newest, target);
+    }
+
+    private float lerp(int from, int to, long timeNanos) {
+        float alpha = (float) (timeNanos - times[from]) / (times[to] - times[from]);
+        return ys[from] + (ys[to] - ys[from]) * alpha;
+    }
+}
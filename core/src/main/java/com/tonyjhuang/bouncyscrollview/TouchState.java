@@ -0,0 +1,78 @@
+package com.tonyjhuang.bouncyscrollview;
+
+/**
+ * Decides who owns a gesture. If the user puts their finger down outside of the card we ignore
+ * the whole gesture even if it later slides over the card, and if they put it down on the card
+ * we keep dragging it even when the finger slides off.
+ * <p/>
+ * Actions are MotionEvent#getAction() values; the constants below match MotionEvent's so this
+ * class doesn't need Android.
+ */
+public class TouchState {
+
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+    public static final int ACTION_CANCEL = 3;
+
+    private boolean draggingOutside = false;
+    private boolean draggingInside = false;
+
+    /**
+     * Track where the gesture started. Called for every event we get to intercept.
+     */
+    public void onInterceptTouchEvent(int action, boolean touchingCard) {
+        if (!touchingCard) {
+            switch (action) {
+                case ACTION_DOWN:
+                    draggingOutside = true;
+                    break;
+                case ACTION_CANCEL:
+                case ACTION_UP:
+                    draggingOutside = false;
+                    break;
+            }
+        } else {
+            switch (action) {
+                case ACTION_DOWN:
+                    draggingInside = true;
+                    break;
+                case ACTION_CANCEL:
+                case ACTION_UP:
+                    draggingInside = false;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return true if this event belongs to the card and should move it.
+     */
+    public boolean onTouchEvent(int action, boolean touchingCard) {
+        boolean gestureEnded = action == ACTION_UP || action == ACTION_CANCEL;
+        if (draggingInside || (touchingCard && !draggingOutside)) {
+            if (gestureEnded)
+                draggingInside = false;
+            return true;
+        } else {
+            if (gestureEnded) {
+                draggingInside = false;
+                draggingOutside = false;
+            }
+            return false;
+        }
+    }
+
+    public boolean isDraggingInside() {
+        return draggingInside;
+    }
+
+    public boolean isDraggingOutside() {
+        return draggingOutside;
+    }
+
+    public void reset() {
+        draggingInside = false;
+        draggingOutside = false;
+    }
+}
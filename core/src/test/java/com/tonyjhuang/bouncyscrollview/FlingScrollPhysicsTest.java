@@ -0,0 +1,50 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FlingScrollPhysicsTest {
+
+    private static final float PHYSICAL_COEFF = ScrollMath.getPhysicalCoeff(3f);
+    private static final float FRICTION = 0.015f;
+
+    @Test
+    public void coastsFromReleaseVelocityToFlingDistance() {
+        float velocity = -3000;
+        float distance = ScrollMath.getFlingDistance(velocity, FRICTION, PHYSICAL_COEFF);
+        FlingScrollPhysics physics = new FlingScrollPhysics();
+        physics.start(1000, 1000 + distance, velocity);
+
+        assertTrue(physics.update(0));
+        assertEquals(velocity, physics.getVelocity(), 1f);
+        long elapsed = 0;
+        float last = 1000;
+        while (physics.update(elapsed)) {
+            assertTrue("never turns back", physics.getPosition() <= last);
+            last = physics.getPosition();
+            elapsed += 16;
+        }
+        assertEquals(1000 + distance, physics.getPosition(), 0f);
+    }
+
+    @Test
+    public void stopsAtAnEdgeThatCutsItShort() {
+        FlingScrollPhysics physics = new FlingScrollPhysics();
+        physics.start(1000, 900, -3000);
+        long elapsed = 0;
+        while (physics.update(elapsed))
+            elapsed += 16;
+        assertEquals(900, physics.getPosition(), 0f);
+    }
+
+    @Test
+    public void movingAwayFromEndJustLandsThere() {
+        FlingScrollPhysics physics = new FlingScrollPhysics();
+        physics.start(1000, 1200, -3000);
+        assertFalse(physics.update(0));
+        assertEquals(1200, physics.getPosition(), 0f);
+    }
+}
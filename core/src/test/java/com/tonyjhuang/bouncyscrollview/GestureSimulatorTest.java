@@ -0,0 +1,103 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class GestureSimulatorTest {
+
+    private static final int HEIGHT = 1920;
+    private static final int CARD_HEIGHT = 600;
+
+    private GestureSimulator simulator;
+
+    @Before
+    public void setUp() {
+        simulator = newSimulator();
+    }
+
+    @Test
+    public void entrySettlesAtStartingPosition() {
+        GestureSimulator.Result result = simulator.enter();
+        assertTrue(result.isSettled());
+        assertEquals(simulator.getStartingPosition(), result.getPosition());
+    }
+
+    @Test
+    public void flingUpLeavesThroughTheTop() {
+        float cardCenter = HEIGHT - simulator.getStartingPosition() + CARD_HEIGHT / 2;
+        GestureSimulator.Result result = simulator.replay(
+                GestureSimulator.Gesture.drag(cardCenter, cardCenter - 300, 100));
+        assertTrue(result.isSettled());
+        assertEquals(simulator.getMaxPosition(), result.getPosition());
+        assertEquals(1f, result.getProgress(), 0f);
+    }
+
+    @Test
+    public void slowShortDragSpringsBack() {
+        float cardCenter = HEIGHT - simulator.getStartingPosition() + CARD_HEIGHT / 2;
+        GestureSimulator.Result result = simulator.replay(
+                GestureSimulator.Gesture.drag(cardCenter, cardCenter + 100, 800));
+        assertTrue(result.isSettled());
+        assertEquals(simulator.getStartingPosition(), result.getPosition());
+    }
+
+    @Test
+    public void dragOutsideTheCardDoesNothing() {
+        GestureSimulator.Result result = simulator.replay(GestureSimulator.Gesture.drag(10, 500, 200));
+        assertEquals(0, result.getFrames());
+        assertEquals(simulator.getStartingPosition(), result.getPosition());
+    }
+
+    @Test
+    public void resamplingKeepsTheCardCloserToTheFinger() {
+        float cardCenter = HEIGHT - simulator.getStartingPosition() + CARD_HEIGHT / 2;
+        GestureSimulator.Gesture gesture = GestureSimulator.Gesture.drag(cardCenter, cardCenter - 400, 500, 8);
+
+        simulator.setTouchResampling(false);
+        float perEventLag = simulator.replay(gesture).getMeanDragLag();
+        simulator.reset();
+        simulator.setTouchResampling(true);
+        float resampledLag = simulator.replay(gesture).getMeanDragLag();
+
+        assertTrue(resampledLag < perEventLag);
+    }
+
+    @Test
+    public void replayIsDeterministic() {
+        GestureSimulator other = newSimulator();
+        float cardCenter = HEIGHT - simulator.getStartingPosition() + CARD_HEIGHT / 2;
+        GestureSimulator.Gesture gesture = GestureSimulator.Gesture.drag(cardCenter, cardCenter + 250, 150);
+
+        GestureSimulator.Result first = simulator.replay(gesture);
+        int frames = first.getFrames();
+        int position = first.getPosition();
+        GestureSimulator.Result second = other.replay(gesture);
+
+        assertEquals(frames, second.getFrames());
+        assertEquals(position, second.getPosition());
+    }
+
+    @Test
+    public void replayDoesNotAllocate() {
+        float cardCenter = HEIGHT - simulator.getStartingPosition() + CARD_HEIGHT / 2;
+        GestureSimulator.Gesture gesture = GestureSimulator.Gesture.drag(cardCenter, cardCenter - 300, 100);
+        // Warm up so class loading and JIT don't count.
+        for (int i = 0; i < 100; i++) {
+            simulator.reset();
+            simulator.replay(gesture);
+        }
+        simulator.reset();
+        GestureSimulator.Result result = simulator.replay(gesture);
+
+        assumeTrue(result.getAllocatedBytes() >= 0);
+        assertEquals(0, result.getAllocatedBytes());
+    }
+
+    private static GestureSimulator newSimulator() {
+        return new GestureSimulator(HEIGHT, CARD_HEIGHT, 0.66f, 0.75f, 3f);
+    }
+}
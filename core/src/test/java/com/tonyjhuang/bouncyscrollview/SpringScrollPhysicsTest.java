@@ -0,0 +1,45 @@
+package com.tonyjhuang.bouncyscrollview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpringScrollPhysicsTest {
+
+    @Test
+    public void overshootSettlesWithinItsDuration() {
+        int[] durations = {200, 500, 1000};
+        for (int duration : durations) {
+            SpringScrollPhysics physics = SpringScrollPhysics.overshoot(duration);
+            physics.start(0, 1500, 0);
+            long elapsed = 0;
+            while (physics.update(elapsed))
+                elapsed += 16;
+            assertTrue("settled after " + elapsed + "ms of " + duration, elapsed <= duration + 16);
+            assertEquals(1500, physics.getPosition(), 0f);
+        }
+    }
+
+    @Test
+    public void overshootLooksLikeOvershootInterpolator() {
+        SpringScrollPhysics physics = SpringScrollPhysics.overshoot();
+        physics.start(0, 1000, 0);
+        float peak = 0;
+        for (long elapsed = 0; physics.update(elapsed); elapsed++)
+            peak = Math.max(peak, physics.getPosition());
+        // OvershootInterpolator's default tension peaks 13% past the end.
+        assertEquals(1130, peak, 20);
+    }
+
+    @Test
+    public void snapsAtDurationWhateverIsLeft() {
+        SpringScrollPhysics physics = new SpringScrollPhysics(100f, 0.2f, 300);
+        physics.start(0, 1000, 0);
+        assertTrue(physics.update(299));
+        assertFalse(physics.update(300));
+        assertEquals(1000, physics.getPosition(), 0f);
+        assertEquals(0, physics.getVelocity(), 0f);
+    }
+}